@@ -145,6 +145,7 @@ public class PositionHelperActivity extends AppCompatActivity {
 
         @Override
         public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+            mPositionHelper.onBindViewHolder(holder, position);
             holder.tvPosition.setText(String.valueOf(position));
             holder.tvTitle.setText(mItems.get(position));
         }
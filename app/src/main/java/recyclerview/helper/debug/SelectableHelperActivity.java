@@ -2,7 +2,6 @@ package recyclerview.helper.debug;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
-import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
@@ -18,7 +17,11 @@ import android.widget.Toast;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
+import recyclerview.helper.AbstractDiffCallback;
+import recyclerview.helper.AsyncDiffExecutor;
 import recyclerview.helper.ItemClickHelper;
 import recyclerview.helper.SelectableAdapter;
 import recyclerview.helper.SelectableHelper;
@@ -113,10 +116,21 @@ public class SelectableHelperActivity extends AppCompatActivity {
     }
 
     public static class TestSelectableAdapter extends SelectableAdapter<TestSelectableAdapter.ViewHolder> {
-        private List<String> mItems;
+        private static final Executor DIFF_EXECUTOR = Executors.newSingleThreadExecutor();
+
+        private AsyncDiffExecutor<String> mDiffExecutor;
 
         public TestSelectableAdapter(List<String> items) {
-            mItems = new ArrayList<>(items);
+            mDiffExecutor = new AsyncDiffExecutor<>(this, DIFF_EXECUTOR,
+                    new AsyncDiffExecutor.DiffCallbackFactory<String>() {
+                        @NonNull
+                        @Override
+                        public AbstractDiffCallback<String> create(@NonNull List<String> oldList,
+                                                                   @NonNull List<String> newList) {
+                            return new DiffCallback(oldList, newList);
+                        }
+                    });
+            mDiffExecutor.submitList(new ArrayList<>(items));
 
             setOnItemClickListener(new ItemClickHelper.OnItemClickListener() {
                 @Override
@@ -138,19 +152,17 @@ public class SelectableHelperActivity extends AppCompatActivity {
         public void onBindViewHolder(@NonNull final ViewHolder holder, int position) {
             super.onBindViewHolder(holder, position);
 
-            holder.tvTitle.setText(mItems.get(position));
+            holder.tvTitle.setText(mDiffExecutor.getCurrentList().get(position));
         }
 
         @Override
         public int getItemCount() {
-            return mItems.size();
+            return mDiffExecutor.getCurrentList().size();
         }
 
         public void setItems(List<String> items) {
-            DiffCallback diffCallback = new DiffCallback(mItems, items);
-            DiffUtil.DiffResult result = DiffUtil.calculateDiff(diffCallback, true);
-            result.dispatchUpdatesTo(this);
-            mItems = new ArrayList<>(items);
+            // 提交一个副本，因为 items 之后还会被修改
+            mDiffExecutor.submitList(new ArrayList<>(items));
         }
 
         public static class ViewHolder extends RecyclerView.ViewHolder implements SelectableHelper.Selectable {
@@ -177,38 +189,19 @@ public class SelectableHelperActivity extends AppCompatActivity {
             }
         }
 
-        private static class DiffCallback extends DiffUtil.Callback {
-            private List<String> mOldList;
-            private List<String> mNewList;
-
+        private static class DiffCallback extends AbstractDiffCallback<String> {
             DiffCallback(List<String> oldList, List<String> newList) {
-                mOldList = oldList;
-                mNewList = newList;
-            }
-
-            @Override
-            public int getOldListSize() {
-                return mOldList.size();
+                super(oldList, newList);
             }
 
             @Override
-            public int getNewListSize() {
-                return mNewList.size();
-            }
-
-            @Override
-            public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
-                if (oldItemPosition > mOldList.size()
-                        || newItemPosition > mNewList.size()) {
-                    return false;
-                }
-
-                return mOldList.get(oldItemPosition).equals(mNewList.get(newItemPosition));
+            public boolean areItemsTheSame2(int oldItemPosition, int newItemPosition) {
+                return getOldList().get(oldItemPosition).equals(getNewList().get(newItemPosition));
             }
 
             @Override
             public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
-                return mOldList.get(oldItemPosition).equals(mNewList.get(newItemPosition));
+                return getOldList().get(oldItemPosition).equals(getNewList().get(newItemPosition));
             }
         }
     }
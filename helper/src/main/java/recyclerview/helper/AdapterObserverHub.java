@@ -0,0 +1,223 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 jrfeng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package recyclerview.helper;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * 同一个 Adapter 上的所有辅助类共享的 AdapterDataObserver。
+ * <p>
+ * 每个 Adapter 只会注册一个 AdapterDataObserver，每个改变事件只会被接收一次，然后先进行规范化（忽略数量
+ * 为 0 的改变与原地移动，并将多个列表项的移动拆分为多次单个列表项的移动，与 RecyclerView 的处理方式保持
+ * 一致），再按固定的顺序（见 {@link #ORDER_POSITION_HELPER}、{@link #ORDER_SELECTABLE_HELPER}、
+ * {@link #ORDER_KEY_POSITION_INDEX}）分发给已注册的辅助类，而不再依赖于各辅助类的注册顺序。
+ * <p>
+ * 辅助类在处理事件时调用 notifyXxx 方法产生的嵌套事件会被立即分发，这与 RecyclerView 接收这些事件的顺序
+ * 相同。该类的所有方法都需要在主线程中调用。
+ * <p>
+ * RecyclerView.Adapter 会按注册顺序的逆序通知 AdapterDataObserver，而 PositionHelper 需要在 RecyclerView
+ * 处理改变之前收到通知。因此注册 {@link #ORDER_POSITION_HELPER} 顺序的 observer 时（此时 RecyclerView 已
+ * 通过 setAdapter 方法注册了自己的 AdapterDataObserver），如果共享的 AdapterDataObserver 已经注册过，
+ * 会先注销再重新注册，使其排在 RecyclerView 的 AdapterDataObserver 之后注册，从而先于 RecyclerView 收到
+ * 通知。
+ */
+final class AdapterObserverHub {
+    static final int ORDER_POSITION_HELPER = 0;
+    static final int ORDER_SELECTABLE_HELPER = 1;
+    static final int ORDER_KEY_POSITION_INDEX = 2;
+
+    private static final Map<RecyclerView.Adapter<?>, AdapterObserverHub> sHubs = new WeakHashMap<>();
+
+    private final RecyclerView.AdapterDataObserver mAdapterDataObserver;
+
+    // 按分发顺序排列，修改时会创建新数组，因此分发期间注册或注销不会影响本次分发
+    private RecyclerView.AdapterDataObserver[] mObservers;
+    private int[] mOrders;
+
+    private AdapterObserverHub() {
+        mObservers = new RecyclerView.AdapterDataObserver[0];
+        mOrders = new int[0];
+        mAdapterDataObserver = new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onChanged() {
+                for (RecyclerView.AdapterDataObserver observer : mObservers) {
+                    observer.onChanged();
+                }
+            }
+
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+                if (itemCount <= 0) {
+                    return;
+                }
+
+                for (RecyclerView.AdapterDataObserver observer : mObservers) {
+                    observer.onItemRangeChanged(positionStart, itemCount, payload);
+                }
+            }
+
+            @Override
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                if (itemCount <= 0) {
+                    return;
+                }
+
+                for (RecyclerView.AdapterDataObserver observer : mObservers) {
+                    observer.onItemRangeInserted(positionStart, itemCount);
+                }
+            }
+
+            @Override
+            public void onItemRangeRemoved(int positionStart, int itemCount) {
+                if (itemCount <= 0) {
+                    return;
+                }
+
+                for (RecyclerView.AdapterDataObserver observer : mObservers) {
+                    observer.onItemRangeRemoved(positionStart, itemCount);
+                }
+            }
+
+            @Override
+            public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+                if (itemCount <= 0 || fromPosition == toPosition) {
+                    return;
+                }
+
+                // 将 [fromPosition, fromPosition + itemCount) 整体移动到 toPosition 处，拆分为多次单个
+                // 列表项的移动
+                for (int i = 0; i < itemCount; i++) {
+                    int from = fromPosition < toPosition ? fromPosition : fromPosition + i;
+                    int to = fromPosition < toPosition ? toPosition + itemCount - 1 : toPosition + i;
+                    dispatchItemMoved(from, to);
+                }
+            }
+        };
+    }
+
+    /**
+     * 为 adapter 注册一个 observer。同一个 observer 重复注册时会被忽略。
+     *
+     * @param order observer 的分发顺序，值越小越先收到事件，相同顺序的 observer 按注册顺序分发。
+     */
+    static void register(@NonNull RecyclerView.Adapter<?> adapter,
+                         @NonNull RecyclerView.AdapterDataObserver observer,
+                         int order) {
+        AdapterObserverHub hub = sHubs.get(adapter);
+        if (hub == null) {
+            hub = new AdapterObserverHub();
+            sHubs.put(adapter, hub);
+            adapter.registerAdapterDataObserver(hub.mAdapterDataObserver);
+        } else if (order == ORDER_POSITION_HELPER && hub.indexOf(observer) < 0) {
+            // 共享的 AdapterDataObserver 可能是在 RecyclerView.setAdapter 之前注册的（例如在构造
+            // SelectableHelper 时），重新注册以保证先于 RecyclerView 收到通知
+            adapter.unregisterAdapterDataObserver(hub.mAdapterDataObserver);
+            adapter.registerAdapterDataObserver(hub.mAdapterDataObserver);
+        }
+
+        hub.add(observer, order);
+    }
+
+    /**
+     * 注销 adapter 上的 observer。当 adapter 上不再有任何 observer 时，会同时注销共享的
+     * AdapterDataObserver。
+     */
+    static void unregister(@NonNull RecyclerView.Adapter<?> adapter,
+                           @NonNull RecyclerView.AdapterDataObserver observer) {
+        AdapterObserverHub hub = sHubs.get(adapter);
+        if (hub == null) {
+            return;
+        }
+
+        hub.remove(observer);
+        if (hub.mObservers.length == 0) {
+            sHubs.remove(adapter);
+            adapter.unregisterAdapterDataObserver(hub.mAdapterDataObserver);
+        }
+    }
+
+    // *******************************private****************************
+
+    private void dispatchItemMoved(int fromPosition, int toPosition) {
+        for (RecyclerView.AdapterDataObserver observer : mObservers) {
+            observer.onItemRangeMoved(fromPosition, toPosition, 1);
+        }
+    }
+
+    private int indexOf(RecyclerView.AdapterDataObserver observer) {
+        for (int i = 0; i < mObservers.length; i++) {
+            if (mObservers[i] == observer) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void add(RecyclerView.AdapterDataObserver observer, int order) {
+        if (indexOf(observer) >= 0) {
+            return;
+        }
+
+        // 插入到最后一个顺序小于或等于 order 的 observer 之后
+        int index = 0;
+        while (index < mOrders.length && mOrders[index] <= order) {
+            index++;
+        }
+
+        int length = mObservers.length;
+        RecyclerView.AdapterDataObserver[] observers = new RecyclerView.AdapterDataObserver[length + 1];
+        int[] orders = new int[length + 1];
+
+        System.arraycopy(mObservers, 0, observers, 0, index);
+        System.arraycopy(mOrders, 0, orders, 0, index);
+        observers[index] = observer;
+        orders[index] = order;
+        System.arraycopy(mObservers, index, observers, index + 1, length - index);
+        System.arraycopy(mOrders, index, orders, index + 1, length - index);
+
+        mObservers = observers;
+        mOrders = orders;
+    }
+
+    private void remove(RecyclerView.AdapterDataObserver observer) {
+        int index = indexOf(observer);
+        if (index < 0) {
+            return;
+        }
+
+        int length = mObservers.length;
+        RecyclerView.AdapterDataObserver[] observers = Arrays.copyOf(mObservers, length - 1);
+        int[] orders = Arrays.copyOf(mOrders, length - 1);
+        System.arraycopy(mObservers, index + 1, observers, index, length - index - 1);
+        System.arraycopy(mOrders, index + 1, orders, index, length - index - 1);
+
+        mObservers = observers;
+        mOrders = orders;
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 jrfeng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package recyclerview.helper;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * 在后台线程中计算 {@link AbstractDiffCallback} 的差异，然后在主线程中将结果分发给 Adapter。
+ * <p>
+ * 每次调用 {@link #submitList(List)} 方法都会产生一个新的列表版本。新版本会取代所有尚未完成的旧版本（最新
+ * 的列表优先）：尚未开始的旧任务会直接跳过，正在计算的旧任务会在下一次比较列表项时中止，已经计算完成的旧
+ * 结果也不会被分发。因此只有最新提交的列表的差异才会被分发给 Adapter。
+ * <p>
+ * Adapter 应始终通过 {@link #getCurrentList()} 方法获取当前的列表数据，并且提交的列表在提交之后不应再被
+ * 修改。
+ * <p>
+ * <b>例：</b>
+ * <p>
+ * <code>
+ * <pre>
+ * AsyncDiffExecutor&lt;Item&gt; diffExecutor = new AsyncDiffExecutor&lt;&gt;(adapter, executor,
+ *         new AsyncDiffExecutor.DiffCallbackFactory&lt;Item&gt;() {
+ *             public AbstractDiffCallback&lt;Item&gt; create(List&lt;Item&gt; oldList, List&lt;Item&gt; newList) {
+ *                 return new ItemDiffCallback(oldList, newList);
+ *             }
+ *         });
+ *
+ * diffExecutor.submitList(newItems);
+ * </pre>
+ * </code>
+ *
+ * @param <T> 列表元素的类型。
+ */
+public final class AsyncDiffExecutor<T> {
+    // 计算差异时每比较多少次检查一次列表版本
+    private static final int CANCEL_CHECK_INTERVAL = 256;
+
+    private final RecyclerView.Adapter<?> mAdapter;
+    private final Executor mExecutor;
+    private final DiffCallbackFactory<T> mFactory;
+    private final Handler mMainHandler;
+
+    // 提交的原始列表，用于判断是否重复提交了同一个列表；mReadOnlyList 是它的只读视图
+    private List<T> mCurrentList;
+    private List<T> mReadOnlyList;
+    private boolean mDetectMoves;
+
+    // 只会在主线程中修改，后台线程读取该字段以判断当前任务是否已过期
+    private volatile int mGeneration;
+
+    /**
+     * 创建一个 AsyncDiffExecutor 对象。
+     *
+     * @param adapter  要分发差异的 Adapter，不能为 null。
+     * @param executor 用于计算差异的 Executor，不应是主线程的 Executor，不能为 null。
+     * @param factory  用于创建 AbstractDiffCallback，会在 executor 中调用，不能为 null。
+     */
+    public AsyncDiffExecutor(@NonNull RecyclerView.Adapter<?> adapter,
+                             @NonNull Executor executor,
+                             @NonNull DiffCallbackFactory<T> factory) {
+        NonNullUtil.requireNonNull(adapter);
+        NonNullUtil.requireNonNull(executor);
+        NonNullUtil.requireNonNull(factory);
+
+        mAdapter = adapter;
+        mExecutor = executor;
+        mFactory = factory;
+        mMainHandler = new Handler(Looper.getMainLooper());
+        setCurrentList(Collections.<T>emptyList());
+        mDetectMoves = true;
+    }
+
+    /**
+     * 设置计算差异时是否检测列表项的移动（默认为 true）。
+     *
+     * @see DiffUtil#calculateDiff(DiffUtil.Callback, boolean)
+     */
+    public void setDetectMoves(boolean detectMoves) {
+        mDetectMoves = detectMoves;
+    }
+
+    /**
+     * 获取当前的列表。返回的列表是只读的。
+     */
+    @NonNull
+    public List<T> getCurrentList() {
+        return mReadOnlyList;
+    }
+
+    /**
+     * 提交一个新的列表。只能在主线程中调用。
+     * <p>
+     * 如果当前列表或新的列表为空，则会直接在主线程中分发改变，否则会在后台线程中计算差异，并在计算完成后（
+     * 且没有更新的列表被提交时）在主线程中更新当前列表并将差异分发给 Adapter。
+     *
+     * @param newList 新的列表，为 null 时相当于空列表。提交后不应再修改该列表。
+     */
+    public void submitList(@Nullable List<T> newList) {
+        final int generation = ++mGeneration;
+
+        if (newList == null) {
+            newList = Collections.emptyList();
+        }
+
+        if (newList == mCurrentList || newList == mReadOnlyList) {
+            return;
+        }
+
+        final List<T> oldList = mCurrentList;
+        if (oldList.isEmpty() || newList.isEmpty()) {
+            setCurrentList(newList);
+            if (!oldList.isEmpty()) {
+                mAdapter.notifyItemRangeRemoved(0, oldList.size());
+            } else if (!newList.isEmpty()) {
+                mAdapter.notifyItemRangeInserted(0, newList.size());
+            }
+            return;
+        }
+
+        mExecutor.execute(new DiffTask(oldList, newList, generation, mDetectMoves));
+    }
+
+    // ***************************************private************************************
+
+    private void setCurrentList(List<T> list) {
+        mCurrentList = list;
+        mReadOnlyList = Collections.unmodifiableList(list);
+    }
+
+    private boolean isCurrentGeneration(int generation) {
+        return generation == mGeneration;
+    }
+
+    private void dispatchResult(List<T> oldList, List<T> newList, DiffUtil.DiffResult result, int generation) {
+        // 已提交了更新的列表，或者当前列表在计算期间已被替换
+        if (!isCurrentGeneration(generation) || oldList != mCurrentList) {
+            return;
+        }
+
+        setCurrentList(newList);
+        result.dispatchUpdatesTo(mAdapter);
+    }
+
+    private final class DiffTask implements Runnable {
+        private final List<T> mOldList;
+        private final List<T> mNewList;
+        private final int mTaskGeneration;
+        private final boolean mTaskDetectMoves;
+
+        DiffTask(List<T> oldList, List<T> newList, int generation, boolean detectMoves) {
+            mOldList = oldList;
+            mNewList = newList;
+            mTaskGeneration = generation;
+            mTaskDetectMoves = detectMoves;
+        }
+
+        @Override
+        public void run() {
+            if (!isCurrentGeneration(mTaskGeneration)) {
+                return;
+            }
+
+            CancellableCallback callback = new CancellableCallback(mFactory.create(mOldList, mNewList), mTaskGeneration);
+
+            final DiffUtil.DiffResult result;
+            try {
+                result = DiffUtil.calculateDiff(callback, mTaskDetectMoves);
+            } catch (DiffCancelledException e) {
+                return;
+            }
+
+            mMainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    dispatchResult(mOldList, mNewList, result, mTaskGeneration);
+                }
+            });
+        }
+    }
+
+    /**
+     * 包装 AbstractDiffCallback，当有更新的列表被提交时抛出 DiffCancelledException 以中止差异计算。
+     */
+    private final class CancellableCallback extends DiffUtil.Callback {
+        private final AbstractDiffCallback<T> mCallback;
+        private final int mCallbackGeneration;
+        private int mCompareCount;
+
+        CancellableCallback(AbstractDiffCallback<T> callback, int generation) {
+            mCallback = callback;
+            mCallbackGeneration = generation;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return mCallback.getOldListSize();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return mCallback.getNewListSize();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            checkCancelled();
+            return mCallback.areItemsTheSame(oldItemPosition, newItemPosition);
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            checkCancelled();
+            return mCallback.areContentsTheSame(oldItemPosition, newItemPosition);
+        }
+
+        @Nullable
+        @Override
+        public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+            return mCallback.getChangePayload(oldItemPosition, newItemPosition);
+        }
+
+        private void checkCancelled() {
+            if (++mCompareCount % CANCEL_CHECK_INTERVAL == 0 && !isCurrentGeneration(mCallbackGeneration)) {
+                throw new DiffCancelledException();
+            }
+        }
+    }
+
+    private static final class DiffCancelledException extends RuntimeException {
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            // 只用于中止差异计算，不需要堆栈信息
+            return this;
+        }
+    }
+
+    // ****************************public interface**********************
+
+    /**
+     * 用于创建计算差异所需的 AbstractDiffCallback。
+     *
+     * @param <T> 列表元素的类型。
+     */
+    public interface DiffCallbackFactory<T> {
+        /**
+         * 创建一个比较 oldList 与 newList 的 AbstractDiffCallback。该方法会在后台线程中调用。
+         */
+        @NonNull
+        AbstractDiffCallback<T> create(@NonNull List<T> oldList, @NonNull List<T> newList);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 jrfeng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package recyclerview.helper;
+
+/**
+ * 基于时间窗口的点击过滤器。
+ * <p>
+ * 使用固定大小的基本类型数组记录最近被点击的 key（位置、View ID 等）与时间戳，过滤点击时不会分配任何对
+ * 象。
+ */
+final class ClickThrottle {
+    private static final int CAPACITY = 16;
+
+    private final int[] mKeys;
+    private final long[] mTimestamps;
+    private int mCount;
+
+    private long mWindowMillis;
+    private boolean mDebounce;
+
+    ClickThrottle() {
+        mKeys = new int[CAPACITY];
+        mTimestamps = new long[CAPACITY];
+    }
+
+    /**
+     * 设置时间窗口。
+     *
+     * @param windowMillis 时间窗口的长度（毫秒），小于或等于 0 时不会过滤任何点击。
+     * @param debounce     如果为 false，则时间窗口从上一次被接受的点击开始计算（节流）；如果为 true，则时
+     *                     间窗口从上一次点击开始计算，被丢弃的点击也会延长时间窗口（防抖）。
+     */
+    void setWindow(long windowMillis, boolean debounce) {
+        mWindowMillis = windowMillis;
+        mDebounce = debounce;
+        mCount = 0;
+    }
+
+    /**
+     * 判断是否接受 key 在 now 时刻的点击。
+     *
+     * @return 如果接受该点击则返回 true，否则返回 false。
+     */
+    boolean tryAcquire(int key, long now) {
+        if (mWindowMillis <= 0) {
+            return true;
+        }
+
+        int index = -1;
+        int oldest = 0;
+        for (int i = 0; i < mCount; i++) {
+            if (mKeys[i] == key) {
+                index = i;
+                break;
+            }
+
+            if (mTimestamps[i] < mTimestamps[oldest]) {
+                oldest = i;
+            }
+        }
+
+        if (index >= 0) {
+            boolean accepted = now - mTimestamps[index] >= mWindowMillis;
+            if (accepted || mDebounce) {
+                mTimestamps[index] = now;
+            }
+            return accepted;
+        }
+
+        // 表满时覆盖最早的记录，只要同一时间窗口内被点击的 key 不超过容量，就不会影响过滤结果
+        if (mCount < CAPACITY) {
+            index = mCount++;
+        } else {
+            index = oldest;
+        }
+
+        mKeys[index] = key;
+        mTimestamps[index] = now;
+        return true;
+    }
+
+    void clear() {
+        mCount = 0;
+    }
+}
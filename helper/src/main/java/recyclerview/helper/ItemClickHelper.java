@@ -23,12 +23,26 @@
  */
 package recyclerview.helper;
 
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.SparseArray;
+import android.view.GestureDetector;
+import android.view.HapticFeedbackConstants;
+import android.view.MotionEvent;
+import android.view.SoundEffectConstants;
 import android.view.View;
+import android.view.ViewParent;
 
+import androidx.annotation.IdRes;
+import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
 import androidx.recyclerview.widget.RecyclerView;
 
+import java.util.concurrent.Executor;
+
 /**
  * 用于帮助处理 RecyclerView 中列表项的 “点击/长按点击” 事件。
  * <p>
@@ -96,11 +110,75 @@ import androidx.recyclerview.widget.RecyclerView;
  * </code>
  * <p>
  * 如果你仅关心列表项的点击事件，那么继承 {@link ItemClickableAdapter} 类可能是更好的选择。
+ * <p>
+ * <b>触摸分发模式：</b>
+ * <p>
+ * 调用 {@link #setTouchDispatchEnabled(boolean)} 方法启用 “触摸分发模式” 后，{@link ItemClickHelper}
+ * 会在 RecyclerView 上注册一个 OnItemTouchListener，通过手势识别与命中测试找到被 “点击/长按点击” 的 View，
+ * 此时无需（也不应该）在 onBindViewHolder 方法中调用 {@link #bindClickListener(View...)} 与
+ * {@link #bindLongClickListener(View...)} 方法，绑定列表项时不会产生任何与点击事件有关的开销。可以使用
+ * {@link #addClickTarget(int, int)} 与 {@link #addLongClickTarget(int, int)} 方法为每种 viewType 声明一次
+ * 可点击的 View。
+ * <p>
+ * 注意！该模式下不会为 View 设置 OnClickListener，因此 View 的按下状态与无障碍服务的点击操作不会触发
+ * {@link OnItemClickListener}。
  */
 public class ItemClickHelper {
+    /**
+     * 表示列表项视图本身（即 ViewHolder.itemView）的 View ID。
+     *
+     * @see #addClickTarget(int, int)
+     * @see #addLongClickTarget(int, int)
+     */
+    public static final int ITEM_VIEW = 0;
+
+    /**
+     * 点击过滤的范围：所有列表项共享同一个时间窗口。
+     *
+     * @see #setClickThrottle(long, int)
+     * @see #setClickDebounce(long, int)
+     */
+    public static final int SCOPE_GLOBAL = 0;
+    /**
+     * 点击过滤的范围：每个列表项位置各自拥有一个时间窗口。
+     *
+     * @see #setClickThrottle(long, int)
+     * @see #setClickDebounce(long, int)
+     */
+    public static final int SCOPE_POSITION = 1;
+    /**
+     * 点击过滤的范围：每个 View ID 各自拥有一个时间窗口。
+     *
+     * @see #setClickThrottle(long, int)
+     * @see #setClickDebounce(long, int)
+     */
+    public static final int SCOPE_VIEW_ID = 2;
+
     @Nullable
     private RecyclerView mRecyclerView;
 
+    // 触摸分发模式
+    private boolean mTouchDispatchEnabled;
+    private GestureDetector mGestureDetector;
+    private RecyclerView.OnItemTouchListener mItemTouchListener;
+    private boolean mIgnoreGesture;
+
+    // viewType -> 可点击的 View 的 ID，按注册顺序排列
+    private SparseArray<int[]> mClickTargets;
+    private SparseArray<int[]> mLongClickTargets;
+
+    // 点击过滤
+    private ClickThrottle mClickThrottle;
+    private int mThrottleScope;
+
+    // 异步处理点击事件
+    @Nullable
+    private AsyncItemClickListener<?> mAsyncItemClickListener;
+    private Executor mAsyncExecutor;
+    @Nullable
+    private SelectableHelper.KeyProvider mAsyncKeyProvider;
+    private Handler mMainHandler;
+
     private View.OnClickListener mClickListener;
     private View.OnLongClickListener mLongClickListener;
 
@@ -110,6 +188,9 @@ public class ItemClickHelper {
     private OnItemLongClickListener mItemLongClickListener;
 
     public ItemClickHelper() {
+        mClickTargets = new SparseArray<>();
+        mLongClickTargets = new SparseArray<>();
+        mClickThrottle = new ClickThrottle();
         initAllListener();
     }
 
@@ -119,17 +200,27 @@ public class ItemClickHelper {
      * 一个 {@link ItemClickHelper} 对象只有附加到 RecyclerView 对象时才有效。
      *
      * @param recyclerView 要附加到的 RecyclerView 对象，不能为 null。
+     * @throws IllegalStateException 如果已设置 {@link AsyncItemClickListener} 且没有提供 KeyProvider，而
+     *                               recyclerView 的 Adapter 没有稳定的 ID，则抛出该异常。
      */
-    public void attachToRecyclerView(@NonNull RecyclerView recyclerView) {
+    public void attachToRecyclerView(@NonNull RecyclerView recyclerView) throws IllegalStateException {
         NonNullUtil.requireNonNull(recyclerView);
 
+        if (mAsyncItemClickListener != null) {
+            checkAsyncKeySource(recyclerView.getAdapter(), mAsyncKeyProvider);
+        }
+
         mRecyclerView = recyclerView;
+        if (mTouchDispatchEnabled) {
+            addItemTouchListener();
+        }
     }
 
     /**
      * 分离当前 ItemClickHelper 对象。
      */
     public void detach() {
+        removeItemTouchListener();
         mRecyclerView = null;
     }
 
@@ -157,7 +248,7 @@ public class ItemClickHelper {
     public void bindClickListener(View... views) {
         View.OnClickListener clickListener = null;
 
-        if (mItemClickListener != null) {
+        if (mItemClickListener != null || mAsyncItemClickListener != null) {
             clickListener = mClickListener;
         }
 
@@ -211,13 +302,561 @@ public class ItemClickHelper {
         mItemLongClickListener = listener;
     }
 
+    /**
+     * 设置是否启用 “触摸分发模式”，默认为 false。
+     * <p>
+     * 启用后会在 RecyclerView 上注册一个 OnItemTouchListener，通过手势识别与命中测试分发 “点击/长按点击”
+     * 事件，此时无需调用 {@link #bindClickListener(View...)} 与 {@link #bindLongClickListener(View...)}
+     * 方法，通过这两个方法绑定的事件监听器也会被忽略。如果 RecyclerView 正在滚动，那么用于停止滚动的点击
+     * 不会被当作列表项的点击。
+     *
+     * @param enabled 是否启用 “触摸分发模式”。
+     * @see #addClickTarget(int, int)
+     * @see #addLongClickTarget(int, int)
+     */
+    public void setTouchDispatchEnabled(boolean enabled) {
+        if (mTouchDispatchEnabled == enabled) {
+            return;
+        }
+
+        mTouchDispatchEnabled = enabled;
+        if (mRecyclerView == null) {
+            return;
+        }
+
+        if (enabled) {
+            addItemTouchListener();
+        } else {
+            removeItemTouchListener();
+        }
+    }
+
+    /**
+     * 是否已启用 “触摸分发模式”。
+     */
+    public boolean isTouchDispatchEnabled() {
+        return mTouchDispatchEnabled;
+    }
+
+    /**
+     * 为 viewType 类型的列表项声明一个可 “点击” 的 View，用于 “触摸分发模式” 与
+     * {@link #prepareViewHolder(RecyclerView.ViewHolder, int)} 方法。
+     * <p>
+     * 命中测试会按声明的顺序进行，第一个包含触摸点且可见、可用的 View 会收到事件；列表项视图本身
+     * （{@link #ITEM_VIEW}）总是最后进行测试。如果没有为某个 viewType 声明任何 View，那么该类型的列表项视
+     * 图本身是可 “点击” 的。
+     *
+     * @param viewType 列表项的类型。
+     * @param viewId   列表项视图中可 “点击” 的 View 的 ID，传入 {@link #ITEM_VIEW} 表示列表项视图本身。
+     */
+    public void addClickTarget(int viewType, @IdRes int viewId) {
+        addTarget(mClickTargets, viewType, viewId);
+    }
+
+    /**
+     * 为 viewType 类型的列表项声明一个可 “长按点击” 的 View。
+     * <p>
+     * 规则与 {@link #addClickTarget(int, int)} 相同。
+     *
+     * @param viewType 列表项的类型。
+     * @param viewId   列表项视图中可 “长按点击” 的 View 的 ID，传入 {@link #ITEM_VIEW} 表示列表项视图本身。
+     */
+    public void addLongClickTarget(int viewType, @IdRes int viewId) {
+        addTarget(mLongClickTargets, viewType, viewId);
+    }
+
+    /**
+     * 清除所有通过 {@link #addClickTarget(int, int)} 与 {@link #addLongClickTarget(int, int)} 方法声明的
+     * View。
+     */
+    public void clearClickTargets() {
+        mClickTargets.clear();
+        mLongClickTargets.clear();
+    }
+
+    /**
+     * 解析并缓存列表项中通过 {@link #addClickTarget(int, int)} 与 {@link #addLongClickTarget(int, int)}
+     * 方法声明的 View。
+     * <p>
+     * 应在 RecyclerView.Adapter 的 onCreateViewHolder 方法中调用（此时 holder.getItemViewType() 还不可
+     * 用，因此需要传入 viewType）。之后分发事件时会直接使用缓存的 View，而不会再查找 View 或沿视图树向上
+     * 查找 ViewHolder。如果未启用 “触摸分发模式”，则还会在此时为这些 View 设置事件监听器，因此无需再在
+     * onBindViewHolder 方法中调用 {@link #bindClickListener(View...)} 与
+     * {@link #bindLongClickListener(View...)} 方法，绑定列表项时不会产生任何与点击事件有关的开销。
+     * <p>
+     * 未调用该方法的列表项会在 “触摸分发模式” 下第一次被点击时解析并缓存。需要在创建列表项之前声明可点击
+     * 的 View，之后声明的 View 不会对已缓存的列表项生效。
+     *
+     * @param holder   新创建的 ViewHolder，不能为 null。
+     * @param viewType 列表项的类型。
+     */
+    public void prepareViewHolder(@NonNull RecyclerView.ViewHolder holder, int viewType) {
+        NonNullUtil.requireNonNull(holder);
+
+        ClickTargets targets = new ClickTargets(holder, viewType);
+        holder.itemView.setTag(R.id.recyclerview_helper_click_targets, targets);
+
+        if (mTouchDispatchEnabled) {
+            return;
+        }
+
+        for (View view : targets.mClickViews) {
+            view.setOnClickListener(targets);
+        }
+
+        for (View view : targets.mLongClickViews) {
+            view.setOnLongClickListener(targets);
+        }
+        targets.mListenersBound = true;
+    }
+
+    // 供 ItemClickableAdapter 与 SelectableAdapter 在 onBindViewHolder 方法中调用：只在列表项第一次绑定时
+    // 解析可点击的 View 并设置事件监听器，之后的绑定会直接跳过
+    void bindViewHolder(RecyclerView.ViewHolder holder) {
+        if (mTouchDispatchEnabled) {
+            return;
+        }
+
+        Object tag = holder.itemView.getTag(R.id.recyclerview_helper_click_targets);
+        if (tag instanceof ClickTargets && ((ClickTargets) tag).mListenersBound) {
+            return;
+        }
+
+        prepareViewHolder(holder, holder.getItemViewType());
+    }
+
+    /**
+     * 设置异步处理 “点击” 事件的监听器。
+     * <p>
+     * 设置后，通过过滤的 “点击” 事件会交给 asyncListener 处理，而不再调用 {@link OnItemClickListener}。
+     * 点击时会记录列表项稳定的 key（由 keyProvider 提供，为 null 时使用 RecyclerView.Adapter 的
+     * getItemId 方法，此时 Adapter 必须拥有稳定的 ID）与当时的位置，然后在 executor 中调用
+     * {@link AsyncItemClickListener#onItemClickedAsync(long, int, int)} 方法，并将结果切换回主线程，在确认
+     * 该列表项当前的位置后调用 {@link AsyncItemClickListener#onItemClickResult(long, int, Object)} 方法。
+     * 如果结果返回时当前 ItemClickHelper 已被分离，则会丢弃该结果。
+     * <p>
+     * 确认位置时不会遍历整个列表：优先使用被点击的 ViewHolder 当前的位置；如果该 ViewHolder 已被重新绑定到
+     * 其他列表项上，则在 keyProvider 实现了 {@link ScrollToPositionHelper.KeyIndex} 接口（例如
+     * {@link KeyPositionIndex}）时通过它查找，在 keyProvider 为 null 时通过稳定的 ID 在当前显示的列表项中
+     * 查找，仍然找不到时位置为 {@code RecyclerView.NO_POSITION}。
+     * <p>
+     * 建议配合 {@link #setClickThrottle(long, int)} 方法使用，以避免同一个列表项的点击被并发处理。
+     *
+     * @param executor      用于执行 {@link AsyncItemClickListener#onItemClickedAsync(long, int, int)} 方法的
+     *                      Executor，不能为 null。
+     * @param keyProvider   用于获取列表项的 key，可为 null。为 null 时使用 RecyclerView.Adapter 的 getItemId
+     *                      方法。
+     * @param asyncListener 异步处理 “点击” 事件的监听器，不能为 null。
+     * @throws IllegalStateException 如果 keyProvider 为 null，而当前附加的 RecyclerView 的 Adapter 没有稳定
+     *                               的 ID，则抛出该异常。尚未附加时会在
+     *                               {@link #attachToRecyclerView(RecyclerView)} 方法中检查。
+     * @see #clearAsyncItemClickListener()
+     */
+    public <R> void setAsyncItemClickListener(@NonNull Executor executor,
+                                              @Nullable SelectableHelper.KeyProvider keyProvider,
+                                              @NonNull AsyncItemClickListener<R> asyncListener)
+            throws IllegalStateException {
+        NonNullUtil.requireNonNull(executor);
+        NonNullUtil.requireNonNull(asyncListener);
+
+        if (mRecyclerView != null) {
+            checkAsyncKeySource(mRecyclerView.getAdapter(), keyProvider);
+        }
+
+        if (mMainHandler == null) {
+            mMainHandler = new Handler(Looper.getMainLooper());
+        }
+
+        mAsyncExecutor = executor;
+        mAsyncKeyProvider = keyProvider;
+        mAsyncItemClickListener = asyncListener;
+    }
+
+    /**
+     * 清除通过 {@link #setAsyncItemClickListener(Executor, SelectableHelper.KeyProvider, AsyncItemClickListener)}
+     * 方法设置的监听器。已经开始执行的任务的结果会被丢弃。
+     */
+    public void clearAsyncItemClickListener() {
+        mAsyncExecutor = null;
+        mAsyncKeyProvider = null;
+        mAsyncItemClickListener = null;
+    }
+
+    /**
+     * 设置点击节流：在 scope 范围内，某次点击被接受后，windowMillis 毫秒内的其他点击都会被丢弃。
+     * <p>
+     * 用于避免双击等重复点击导致同一个页面被打开两次，或耗时的点击处理被并发执行。被丢弃的点击不会传递给
+     * {@link OnItemClickListener}，过滤点击时也不会分配任何对象。该方法会覆盖
+     * {@link #setClickDebounce(long, int)} 方法的设置。
+     *
+     * @param windowMillis 时间窗口的长度（毫秒），小于或等于 0 时表示不过滤任何点击。
+     * @param scope        过滤的范围，只能是 {@link #SCOPE_GLOBAL}、{@link #SCOPE_POSITION} 或
+     *                     {@link #SCOPE_VIEW_ID}。
+     * @throws IllegalArgumentException 如果 scope 不合法，则会抛出该异常。
+     */
+    public void setClickThrottle(long windowMillis, int scope) throws IllegalArgumentException {
+        setClickFilter(windowMillis, scope, false);
+    }
+
+    /**
+     * 设置点击防抖：在 scope 范围内，与上一次点击（无论是否被丢弃）的间隔小于 windowMillis 毫秒的点击都会被
+     * 丢弃，因此连续的快速点击只有第一次会被接受。
+     * <p>
+     * 被丢弃的点击不会传递给 {@link OnItemClickListener}，过滤点击时也不会分配任何对象。该方法会覆盖
+     * {@link #setClickThrottle(long, int)} 方法的设置。
+     *
+     * @param windowMillis 时间窗口的长度（毫秒），小于或等于 0 时表示不过滤任何点击。
+     * @param scope        过滤的范围，只能是 {@link #SCOPE_GLOBAL}、{@link #SCOPE_POSITION} 或
+     *                     {@link #SCOPE_VIEW_ID}。
+     * @throws IllegalArgumentException 如果 scope 不合法，则会抛出该异常。
+     */
+    public void setClickDebounce(long windowMillis, int scope) throws IllegalArgumentException {
+        setClickFilter(windowMillis, scope, true);
+    }
+
     // *******************************private****************************
 
+    private void setClickFilter(long windowMillis, int scope, boolean debounce) throws IllegalArgumentException {
+        if (scope != SCOPE_GLOBAL && scope != SCOPE_POSITION && scope != SCOPE_VIEW_ID) {
+            throw new IllegalArgumentException("illegal scope: " + scope);
+        }
+
+        mThrottleScope = scope;
+        mClickThrottle.setWindow(windowMillis, debounce);
+    }
+
+    // 对点击进行过滤，并将被接受的点击传递给 OnItemClickListener 或 AsyncItemClickListener
+    private boolean performItemClick(int position, View view, RecyclerView.ViewHolder holder) {
+        if (mItemClickListener == null && mAsyncItemClickListener == null) {
+            return false;
+        }
+
+        // 先排除无法分发的异步点击，避免被丢弃的点击占用节流的时间窗口
+        RecyclerView.Adapter<?> adapter = null;
+        if (mAsyncItemClickListener != null) {
+            adapter = getAsyncClickAdapter(position);
+            if (adapter == null) {
+                return false;
+            }
+        }
+
+        int key;
+        switch (mThrottleScope) {
+            case SCOPE_POSITION:
+                key = position;
+                break;
+            case SCOPE_VIEW_ID:
+                key = view.getId();
+                break;
+            default:
+                key = 0;
+                break;
+        }
+
+        if (!mClickThrottle.tryAcquire(key, SystemClock.uptimeMillis())) {
+            return false;
+        }
+
+        if (mAsyncItemClickListener != null) {
+            performAsyncItemClick(mAsyncItemClickListener, adapter, position, view.getId(), holder);
+            return true;
+        }
+
+        mItemClickListener.onItemClicked(position, view.getId(), view, holder);
+        return true;
+    }
+
+    // 获取用于分发异步点击的 Adapter，点击无法分发时返回 null。配置错误已在设置监听器与附加时检查，这里
+    // 只会丢弃点击，而不会在触摸事件中抛出异常
+    @Nullable
+    private RecyclerView.Adapter<?> getAsyncClickAdapter(int position) {
+        if (mRecyclerView == null || position == RecyclerView.NO_POSITION) {
+            return null;
+        }
+
+        RecyclerView.Adapter<?> adapter = mRecyclerView.getAdapter();
+        if (adapter == null || (mAsyncKeyProvider == null && !adapter.hasStableIds())) {
+            return null;
+        }
+
+        return adapter;
+    }
+
+    private <R> void performAsyncItemClick(AsyncItemClickListener<R> listener,
+                                           RecyclerView.Adapter<?> adapter,
+                                           int position,
+                                           int viewId,
+                                           RecyclerView.ViewHolder holder) {
+        long key = getItemKey(adapter, mAsyncKeyProvider, position);
+        mAsyncExecutor.execute(new AsyncClickTask<>(listener, mAsyncKeyProvider, key, position, viewId, holder));
+    }
+
+    private static void checkAsyncKeySource(@Nullable RecyclerView.Adapter<?> adapter,
+                                            @Nullable SelectableHelper.KeyProvider keyProvider)
+            throws IllegalStateException {
+        if (keyProvider == null && adapter != null && !adapter.hasStableIds()) {
+            throw new IllegalStateException("AsyncItemClickListener requires stable ids or a KeyProvider.");
+        }
+    }
+
+    private static long getItemKey(RecyclerView.Adapter<?> adapter,
+                                   @Nullable SelectableHelper.KeyProvider keyProvider,
+                                   int position) {
+        return keyProvider != null ? keyProvider.getKey(position) : adapter.getItemId(position);
+    }
+
+    // 查找 key 对应的列表项当前的位置，无法确定时返回 NO_POSITION。不会遍历整个列表：优先使用被点击的
+    // ViewHolder 当前的位置，其次使用 KeyIndex 或稳定的 ID 查找
+    private int findCurrentPosition(RecyclerView.Adapter<?> adapter,
+                                    @Nullable SelectableHelper.KeyProvider keyProvider,
+                                    long key,
+                                    RecyclerView.ViewHolder holder) {
+        int count = adapter.getItemCount();
+
+        // ViewHolder 可能已被回收并重新绑定到其他列表项上，因此需要确认 key
+        int position = holder.getAdapterPosition();
+        if (isKeyAt(adapter, keyProvider, key, position, count)) {
+            return position;
+        }
+
+        if (keyProvider instanceof ScrollToPositionHelper.KeyIndex) {
+            position = ((ScrollToPositionHelper.KeyIndex) keyProvider).positionOf(key);
+            return isKeyAt(adapter, keyProvider, key, position, count) ? position : RecyclerView.NO_POSITION;
+        }
+
+        if (keyProvider == null && mRecyclerView != null) {
+            RecyclerView.ViewHolder current = mRecyclerView.findViewHolderForItemId(key);
+            if (current != null) {
+                position = current.getAdapterPosition();
+                return isKeyAt(adapter, null, key, position, count) ? position : RecyclerView.NO_POSITION;
+            }
+        }
+
+        return RecyclerView.NO_POSITION;
+    }
+
+    private static boolean isKeyAt(RecyclerView.Adapter<?> adapter,
+                                   @Nullable SelectableHelper.KeyProvider keyProvider,
+                                   long key,
+                                   int position,
+                                   int count) {
+        return position >= 0 && position < count && getItemKey(adapter, keyProvider, position) == key;
+    }
+
+    private void addTarget(SparseArray<int[]> targets, int viewType, int viewId) {
+        int[] ids = targets.get(viewType);
+        if (ids == null) {
+            targets.put(viewType, new int[]{viewId});
+            return;
+        }
+
+        for (int id : ids) {
+            if (id == viewId) {
+                return;
+            }
+        }
+
+        int[] newIds = new int[ids.length + 1];
+        System.arraycopy(ids, 0, newIds, 0, ids.length);
+        newIds[ids.length] = viewId;
+        targets.put(viewType, newIds);
+    }
+
+    private void addItemTouchListener() {
+        if (mRecyclerView == null) {
+            return;
+        }
+
+        if (mItemTouchListener == null) {
+            initItemTouchListener(mRecyclerView);
+        }
+
+        mRecyclerView.addOnItemTouchListener(mItemTouchListener);
+    }
+
+    private void removeItemTouchListener() {
+        if (mRecyclerView == null || mItemTouchListener == null) {
+            return;
+        }
+
+        mRecyclerView.removeOnItemTouchListener(mItemTouchListener);
+    }
+
+    private void initItemTouchListener(RecyclerView recyclerView) {
+        mGestureDetector = new GestureDetector(recyclerView.getContext(),
+                new GestureDetector.SimpleOnGestureListener() {
+                    @Override
+                    public boolean onDown(MotionEvent e) {
+                        return true;
+                    }
+
+                    @Override
+                    public boolean onSingleTapUp(MotionEvent e) {
+                        return !mIgnoreGesture && dispatchTouchClick(e.getX(), e.getY());
+                    }
+
+                    @Override
+                    public void onLongPress(MotionEvent e) {
+                        if (!mIgnoreGesture) {
+                            dispatchTouchLongClick(e.getX(), e.getY());
+                        }
+                    }
+                });
+
+        mItemTouchListener = new RecyclerView.OnItemTouchListener() {
+            @Override
+            public boolean onInterceptTouchEvent(@NonNull RecyclerView rv, @NonNull MotionEvent e) {
+                if (e.getActionMasked() == MotionEvent.ACTION_DOWN) {
+                    // 忽略用于停止滚动的点击
+                    mIgnoreGesture = rv.getScrollState() != RecyclerView.SCROLL_STATE_IDLE;
+                }
+
+                mGestureDetector.onTouchEvent(e);
+                return false;
+            }
+
+            @Override
+            public void onTouchEvent(@NonNull RecyclerView rv, @NonNull MotionEvent e) {
+                // 不会拦截事件，因此不会调用该方法
+            }
+
+            @Override
+            public void onRequestDisallowInterceptTouchEvent(boolean disallowIntercept) {
+                // 子 View 接管了事件（例如横向滚动的子列表），忽略本次手势
+                if (disallowIntercept) {
+                    mIgnoreGesture = true;
+                }
+            }
+        };
+    }
+
+    private boolean dispatchTouchClick(float x, float y) {
+        if (mRecyclerView == null || (mItemClickListener == null && mAsyncItemClickListener == null)) {
+            return false;
+        }
+
+        View itemView = mRecyclerView.findChildViewUnder(x, y);
+        if (itemView == null) {
+            return false;
+        }
+
+        RecyclerView.ViewHolder holder = mRecyclerView.getChildViewHolder(itemView);
+        View target = findTarget(getClickTargets(holder).mClickViews, itemView, x, y);
+        if (target == null) {
+            return false;
+        }
+
+        target.playSoundEffect(SoundEffectConstants.CLICK);
+        return performItemClick(holder.getAdapterPosition(), target, holder);
+    }
+
+    private void dispatchTouchLongClick(float x, float y) {
+        if (mRecyclerView == null || mItemLongClickListener == null) {
+            return;
+        }
+
+        View itemView = mRecyclerView.findChildViewUnder(x, y);
+        if (itemView == null) {
+            return;
+        }
+
+        RecyclerView.ViewHolder holder = mRecyclerView.getChildViewHolder(itemView);
+        View target = findTarget(getClickTargets(holder).mLongClickViews, itemView, x, y);
+        if (target == null) {
+            return;
+        }
+
+        if (mItemLongClickListener.onItemLongClicked(holder.getAdapterPosition(), target.getId(), target, holder)) {
+            target.performHapticFeedback(HapticFeedbackConstants.LONG_PRESS);
+        }
+    }
+
+    // 查找 (x, y) 处被 “点击/长按点击” 的 View，x 与 y 是相对于 RecyclerView 的坐标
+    @Nullable
+    private View findTarget(View[] views, View itemView, float x, float y) {
+        for (View view : views) {
+            // 列表项视图本身总是位于最后，且触摸点一定位于其中
+            if (view == itemView || hitTest(itemView, view, x, y)) {
+                return view;
+            }
+        }
+        return null;
+    }
+
+    private ClickTargets getClickTargets(RecyclerView.ViewHolder holder) {
+        Object tag = holder.itemView.getTag(R.id.recyclerview_helper_click_targets);
+        if (tag instanceof ClickTargets) {
+            return (ClickTargets) tag;
+        }
+
+        // 未调用 prepareViewHolder 方法时，在第一次使用时解析并缓存
+        ClickTargets targets = new ClickTargets(holder, holder.getItemViewType());
+        holder.itemView.setTag(R.id.recyclerview_helper_click_targets, targets);
+        return targets;
+    }
+
+    // 按声明的顺序解析 viewType 类型的列表项中的可点击 View，列表项视图本身总是位于最后
+    private static View[] resolveTargets(View itemView, @Nullable int[] ids) {
+        if (ids == null) {
+            return new View[]{itemView};
+        }
+
+        View[] views = new View[ids.length];
+        int count = 0;
+        boolean itemViewClickable = false;
+        for (int id : ids) {
+            if (id == ITEM_VIEW) {
+                itemViewClickable = true;
+                continue;
+            }
+
+            View view = itemView.findViewById(id);
+            if (view != null) {
+                views[count++] = view;
+            }
+        }
+
+        if (itemViewClickable) {
+            views[count++] = itemView;
+        }
+
+        View[] result = new View[count];
+        System.arraycopy(views, 0, result, 0, count);
+        return result;
+    }
+
+    // 判断 view 是否包含 (x, y) 处的点，x 与 y 是相对于 RecyclerView 的坐标
+    private static boolean hitTest(View itemView, View view, float x, float y) {
+        if (!view.isShown() || !view.isEnabled()) {
+            return false;
+        }
+
+        float left = 0;
+        float top = 0;
+        View current = view;
+        while (current != itemView) {
+            ViewParent parent = current.getParent();
+            if (!(parent instanceof View)) {
+                return false;
+            }
+
+            View parentView = (View) parent;
+            left += current.getLeft() + current.getTranslationX() - parentView.getScrollX();
+            top += current.getTop() + current.getTranslationY() - parentView.getScrollY();
+            current = parentView;
+        }
+
+        left += itemView.getLeft() + itemView.getTranslationX();
+        top += itemView.getTop() + itemView.getTranslationY();
+
+        return x >= left && x < left + view.getWidth() && y >= top && y < top + view.getHeight();
+    }
+
     private void initAllListener() {
         mClickListener = new View.OnClickListener() {
             @Override
             public void onClick(View v) {
-                if (mRecyclerView == null) {
+                if (mRecyclerView == null || mTouchDispatchEnabled) {
                     return;
                 }
 
@@ -226,18 +865,14 @@ public class ItemClickHelper {
                     return;
                 }
 
-                if (mItemClickListener == null) {
-                    return;
-                }
-
-                mItemClickListener.onItemClicked(holder.getAdapterPosition(), v.getId(), v, holder);
+                performItemClick(holder.getAdapterPosition(), v, holder);
             }
         };
 
         mLongClickListener = new View.OnLongClickListener() {
             @Override
             public boolean onLongClick(View v) {
-                if (mRecyclerView == null) {
+                if (mRecyclerView == null || mTouchDispatchEnabled) {
                     return false;
                 }
 
@@ -255,6 +890,91 @@ public class ItemClickHelper {
         };
     }
 
+    // 缓存的可点击 View，同时作为这些 View 的事件监听器，因此分发事件时无需查找 ViewHolder
+    private final class ClickTargets implements View.OnClickListener, View.OnLongClickListener {
+        final RecyclerView.ViewHolder mHolder;
+        final View[] mClickViews;
+        final View[] mLongClickViews;
+        // 是否已为 mClickViews 与 mLongClickViews 设置事件监听器，“触摸分发模式” 下解析的列表项不会设置
+        boolean mListenersBound;
+
+        ClickTargets(RecyclerView.ViewHolder holder, int viewType) {
+            mHolder = holder;
+            mClickViews = resolveTargets(holder.itemView, mClickTargets.get(viewType));
+            mLongClickViews = resolveTargets(holder.itemView, mLongClickTargets.get(viewType));
+        }
+
+        @Override
+        public void onClick(View v) {
+            if (mRecyclerView == null || mTouchDispatchEnabled) {
+                return;
+            }
+
+            performItemClick(mHolder.getAdapterPosition(), v, mHolder);
+        }
+
+        @Override
+        public boolean onLongClick(View v) {
+            if (mRecyclerView == null || mTouchDispatchEnabled || mItemLongClickListener == null) {
+                return false;
+            }
+
+            return mItemLongClickListener.onItemLongClicked(mHolder.getAdapterPosition(), v.getId(), v, mHolder);
+        }
+    }
+
+    // 在后台线程中处理点击事件，并将结果切换回主线程
+    private final class AsyncClickTask<R> implements Runnable {
+        private final AsyncItemClickListener<R> mListener;
+        @Nullable
+        private final SelectableHelper.KeyProvider mKeyProvider;
+        private final long mKey;
+        private final int mPosition;
+        private final int mViewId;
+        private final RecyclerView.ViewHolder mHolder;
+
+        AsyncClickTask(AsyncItemClickListener<R> listener,
+                       @Nullable SelectableHelper.KeyProvider keyProvider,
+                       long key,
+                       int position,
+                       int viewId,
+                       RecyclerView.ViewHolder holder) {
+            mListener = listener;
+            mKeyProvider = keyProvider;
+            mKey = key;
+            mPosition = position;
+            mViewId = viewId;
+            mHolder = holder;
+        }
+
+        @Override
+        public void run() {
+            final R result = mListener.onItemClickedAsync(mKey, mPosition, mViewId);
+
+            mMainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    deliverResult(result);
+                }
+            });
+        }
+
+        private void deliverResult(R result) {
+            // 已分离或监听器已被替换
+            if (mRecyclerView == null || mAsyncItemClickListener != mListener) {
+                return;
+            }
+
+            RecyclerView.Adapter<?> adapter = mRecyclerView.getAdapter();
+            if (adapter == null) {
+                return;
+            }
+
+            int position = findCurrentPosition(adapter, mKeyProvider, mKey, mHolder);
+            mListener.onItemClickResult(mKey, position, result);
+        }
+    }
+
     // ****************************public interface**********************
 
     /**
@@ -287,4 +1007,34 @@ public class ItemClickHelper {
          */
         boolean onItemLongClicked(int position, int viewId, View view, RecyclerView.ViewHolder holder);
     }
+
+    /**
+     * 异步处理列表项 “点击” 事件的监听器。
+     *
+     * @param <R> 处理结果的类型。
+     * @see #setAsyncItemClickListener(Executor, SelectableHelper.KeyProvider, AsyncItemClickListener)
+     */
+    public interface AsyncItemClickListener<R> {
+        /**
+         * 在后台线程中处理 “点击” 事件。不要在该方法中访问 View 或 Adapter。
+         *
+         * @param key      被点击的列表项的 key。
+         * @param position 被点击时列表项的位置，执行该方法时可能已经过时。
+         * @param viewId   列表项中被点击的 View 的 ID。
+         * @return 处理结果，会被传递给 {@link #onItemClickResult(long, int, Object)} 方法。
+         */
+        @WorkerThread
+        R onItemClickedAsync(long key, int position, int viewId);
+
+        /**
+         * 在主线程中接收处理结果。
+         *
+         * @param key      被点击的列表项的 key。
+         * @param position 该列表项当前的位置，如果该列表项已不存在或无法确定其位置，则为
+         *                 {@code RecyclerView.NO_POSITION}。
+         * @param result   {@link #onItemClickedAsync(long, int, int)} 方法的返回值。
+         */
+        @MainThread
+        void onItemClickResult(long key, int position, R result);
+    }
 }
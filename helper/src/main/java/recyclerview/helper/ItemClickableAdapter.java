@@ -50,8 +50,7 @@ public abstract class ItemClickableAdapter<VH extends RecyclerView.ViewHolder> e
 
     @Override
     public void onBindViewHolder(@NonNull VH holder, int position) {
-        mItemClickHelper.bindClickListener(holder.itemView);
-        mItemClickHelper.bindLongClickListener(holder.itemView);
+        mItemClickHelper.bindViewHolder(holder);
     }
 
     /**
@@ -71,4 +70,31 @@ public abstract class ItemClickableAdapter<VH extends RecyclerView.ViewHolder> e
     public void setOnItemLongClickListener(ItemClickHelper.OnItemLongClickListener listener) {
         mItemClickHelper.setOnItemLongClickListener(listener);
     }
+
+    /**
+     * 设置是否启用 “触摸分发模式”。启用后绑定列表项时不会再为列表项视图设置事件监听器。
+     *
+     * @see ItemClickHelper#setTouchDispatchEnabled(boolean)
+     */
+    public void setTouchDispatchEnabled(boolean enabled) {
+        mItemClickHelper.setTouchDispatchEnabled(enabled);
+    }
+
+    /**
+     * 设置列表项 “点击” 事件的节流。
+     *
+     * @see ItemClickHelper#setClickThrottle(long, int)
+     */
+    public void setClickThrottle(long windowMillis, int scope) throws IllegalArgumentException {
+        mItemClickHelper.setClickThrottle(windowMillis, scope);
+    }
+
+    /**
+     * 设置列表项 “点击” 事件的防抖。
+     *
+     * @see ItemClickHelper#setClickDebounce(long, int)
+     */
+    public void setClickDebounce(long windowMillis, int scope) throws IllegalArgumentException {
+        mItemClickHelper.setClickDebounce(windowMillis, scope);
+    }
 }
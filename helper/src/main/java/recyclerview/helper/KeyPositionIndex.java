@@ -0,0 +1,430 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 jrfeng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package recyclerview.helper;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.Arrays;
+
+/**
+ * {@link ScrollToPositionHelper.KeyIndex} 的默认实现，用于根据列表项的 key 查找列表项的当前位置。
+ * <p>
+ * 该类会在主线程中监听 Adapter 的数据改变事件，并增量地维护一个按位置排列的 key 数组：收到数据改变事件时
+ * 只会移动数组中的元素，并将插入或改变的位置标记为 “脏” 位置，然后在所有事件分发完成后（下一个主线程消息
+ * 中）才统一读取这些位置的 key。这是因为 DiffUtil 等会从后往前分发事件，分发期间 Adapter 中已经是最终的
+ * 数据，此时按事件中的位置读取 key 会读到错误的列表项。只有 Adapter#notifyDataSetChanged() 或者事件与
+ * 数据不一致时才会重新读取所有列表项的 key。
+ * <p>
+ * {@link #positionOf(long)} 方法可以在任意线程中调用，它会在调用线程中根据 key 数组构建一个 key 到位置的
+ * 散列表，并缓存到下一次数据改变为止，因此查找时不会阻塞主线程。由于查找期间数据可能会发生改变，查找结果
+ * 可能已经过期，{@link ScrollToPositionHelper} 会在主线程中调用 {@link #getKey(int)} 方法确认查找结果。
+ * <p>
+ * 不再使用时，应调用 {@link #release()} 方法注销对 Adapter 的监听。
+ */
+public final class KeyPositionIndex implements ScrollToPositionHelper.KeyIndex {
+    private static final int NO_POSITION = -1;
+    private static final int MIN_CAPACITY = 16;
+
+    private final RecyclerView.Adapter<?> mAdapter;
+    private final SelectableHelper.KeyProvider mKeyProvider;
+    private final RecyclerView.AdapterDataObserver mAdapterDataObserver;
+    private final Handler mMainHandler;
+    private final Runnable mRefreshTask;
+
+    private final Object mLock = new Object();
+
+    // 以下字段受 mLock 保护。mKeys、mDirty 与 mSize 只会在主线程中修改，每次修改后 mVersion 都会增加。
+    // mDirty 为 true 的位置的 key 尚未读取，构建散列表时会被跳过
+    private long[] mKeys;
+    private boolean[] mDirty;
+    private int mSize;
+    private int mVersion;
+
+    // 以下字段只会在主线程中访问。[mDirtyStart, mDirtyEnd) 包含了所有的脏位置
+    private int mDirtyStart;
+    private int mDirtyEnd;
+    private boolean mRebuildPending;
+    private boolean mRefreshPosted;
+
+    // 由查询线程根据 mTableVersion 版本的 mKeys 构建的散列表，mTablePositions 中的 NO_POSITION 表示空槽
+    private long[] mTableKeys;
+    private int[] mTablePositions;
+    private int mTableVersion;
+
+    /**
+     * 创建一个 KeyPositionIndex 对象。
+     * <p>
+     * 创建时会在当前线程中读取所有列表项的 key，因此应在主线程中创建。
+     *
+     * @param adapter     要索引的 Adapter，不能为 null。
+     * @param keyProvider 用于获取列表项的 key，不能为 null。只会在主线程中调用。
+     */
+    public KeyPositionIndex(@NonNull RecyclerView.Adapter<?> adapter,
+                            @NonNull SelectableHelper.KeyProvider keyProvider) {
+        NonNullUtil.requireNonNull(adapter);
+        NonNullUtil.requireNonNull(keyProvider);
+
+        mAdapter = adapter;
+        mKeyProvider = keyProvider;
+        mKeys = new long[MIN_CAPACITY];
+        mDirty = new boolean[MIN_CAPACITY];
+        mTableVersion = -1;
+        mMainHandler = new Handler(Looper.getMainLooper());
+        mRefreshTask = new Runnable() {
+            @Override
+            public void run() {
+                refresh();
+            }
+        };
+
+        rebuild();
+
+        mAdapterDataObserver = new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onChanged() {
+                mRebuildPending = true;
+                postRefresh();
+            }
+
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+                updateKeys(positionStart, itemCount);
+            }
+
+            @Override
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                insertKeys(positionStart, itemCount);
+            }
+
+            @Override
+            public void onItemRangeRemoved(int positionStart, int itemCount) {
+                removeKeys(positionStart, itemCount);
+            }
+
+            @Override
+            public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+                // AdapterObserverHub 已将多个列表项的移动拆分为多次单个列表项的移动
+                moveKey(fromPosition, toPosition);
+            }
+        };
+
+        AdapterObserverHub.register(mAdapter, mAdapterDataObserver, AdapterObserverHub.ORDER_KEY_POSITION_INDEX);
+    }
+
+    /**
+     * 注销对 Adapter 的监听。注销后不应再使用该对象。
+     */
+    public void release() {
+        AdapterObserverHub.unregister(mAdapter, mAdapterDataObserver);
+        mMainHandler.removeCallbacks(mRefreshTask);
+        mRefreshPosted = false;
+    }
+
+    /**
+     * 获取 position 处的列表项的 key。只能在主线程中调用。
+     */
+    @Override
+    public long getKey(int position) {
+        return mKeyProvider.getKey(position);
+    }
+
+    /**
+     * 查找 key 对应的列表项的位置。可以在任意线程中调用。
+     * <p>
+     * 如果自上一次查找以来数据发生了改变，则会在调用线程中重新构建散列表，时间复杂度为 O(n)，否则为 O(1)。
+     *
+     * @return key 对应的列表项的位置，找不到时返回 -1。
+     */
+    @Override
+    public int positionOf(long key) {
+        long[] keys;
+        boolean[] dirty;
+        int version;
+
+        synchronized (mLock) {
+            if (mTableVersion == mVersion) {
+                return lookup(mTableKeys, mTablePositions, key);
+            }
+
+            keys = Arrays.copyOf(mKeys, mSize);
+            dirty = Arrays.copyOf(mDirty, mSize);
+            version = mVersion;
+        }
+
+        // 在锁外构建散列表，避免阻塞主线程中的数据改变事件
+        int capacity = tableCapacity(keys.length);
+        long[] tableKeys = new long[capacity];
+        int[] tablePositions = new int[capacity];
+        Arrays.fill(tablePositions, NO_POSITION);
+
+        int mask = capacity - 1;
+        for (int position = 0; position < keys.length; position++) {
+            if (dirty[position]) {
+                continue;
+            }
+
+            long k = keys[position];
+            int slot = hash(k) & mask;
+            while (tablePositions[slot] != NO_POSITION && tableKeys[slot] != k) {
+                slot = (slot + 1) & mask;
+            }
+
+            // key 重复时保留第一个位置
+            if (tablePositions[slot] == NO_POSITION) {
+                tableKeys[slot] = k;
+                tablePositions[slot] = position;
+            }
+        }
+
+        synchronized (mLock) {
+            if (version == mVersion) {
+                mTableKeys = tableKeys;
+                mTablePositions = tablePositions;
+                mTableVersion = version;
+            }
+        }
+
+        return lookup(tableKeys, tablePositions, key);
+    }
+
+    // ***************************************private************************************
+
+    private void rebuild() {
+        // 在锁外读取 key，避免用户代码阻塞查询线程
+        int itemCount = mAdapter.getItemCount();
+        int capacity = Math.max(itemCount, MIN_CAPACITY);
+        long[] keys = new long[capacity];
+        for (int i = 0; i < itemCount; i++) {
+            keys[i] = mKeyProvider.getKey(i);
+        }
+
+        synchronized (mLock) {
+            mKeys = keys;
+            mDirty = new boolean[capacity];
+            mSize = itemCount;
+            mVersion++;
+        }
+
+        mDirtyStart = mDirtyEnd = 0;
+        mRebuildPending = false;
+    }
+
+    private void postRefresh() {
+        if (!mRefreshPosted) {
+            mRefreshPosted = true;
+            mMainHandler.post(mRefreshTask);
+        }
+    }
+
+    /**
+     * 所有事件分发完成后，读取所有脏位置的 key。
+     */
+    private void refresh() {
+        mRefreshPosted = false;
+
+        // 事件与当前数据不一致（例如漏掉了某个通知）时，只能重新读取所有的 key。mSize 只会在主线程中修改，
+        // 因此在主线程中读取时不需要加锁
+        if (mRebuildPending || mSize != mAdapter.getItemCount()) {
+            rebuild();
+            return;
+        }
+
+        int start = mDirtyStart;
+        int end = Math.min(mDirtyEnd, mSize);
+        mDirtyStart = mDirtyEnd = 0;
+        if (start >= end) {
+            return;
+        }
+
+        // 在锁外读取 key。mDirty 只会在主线程中修改，因此在主线程中读取时不需要加锁
+        long[] keys = new long[end - start];
+        for (int i = start; i < end; i++) {
+            if (mDirty[i]) {
+                keys[i - start] = mKeyProvider.getKey(i);
+            }
+        }
+
+        synchronized (mLock) {
+            for (int i = start; i < end; i++) {
+                if (mDirty[i]) {
+                    mKeys[i] = keys[i - start];
+                    mDirty[i] = false;
+                }
+            }
+            mVersion++;
+        }
+    }
+
+    private void markDirty(int positionStart, int positionEnd) {
+        if (mDirtyStart >= mDirtyEnd) {
+            mDirtyStart = positionStart;
+            mDirtyEnd = positionEnd;
+        } else {
+            mDirtyStart = Math.min(mDirtyStart, positionStart);
+            mDirtyEnd = Math.max(mDirtyEnd, positionEnd);
+        }
+
+        postRefresh();
+    }
+
+    private boolean skipInconsistentEvent(boolean inconsistent) {
+        if (inconsistent || mRebuildPending) {
+            mRebuildPending = true;
+            postRefresh();
+            return true;
+        }
+        return false;
+    }
+
+    private void updateKeys(int positionStart, int itemCount) {
+        if (skipInconsistentEvent(positionStart < 0 || positionStart + itemCount > mSize)) {
+            return;
+        }
+
+        int end = positionStart + itemCount;
+        synchronized (mLock) {
+            Arrays.fill(mDirty, positionStart, end, true);
+            mVersion++;
+        }
+
+        markDirty(positionStart, end);
+    }
+
+    private void insertKeys(int positionStart, int itemCount) {
+        if (skipInconsistentEvent(positionStart < 0 || positionStart > mSize)) {
+            return;
+        }
+
+        int end = positionStart + itemCount;
+        synchronized (mLock) {
+            int newSize = mSize + itemCount;
+            if (newSize > mKeys.length) {
+                int capacity = Math.max(newSize, mKeys.length * 2);
+                mKeys = Arrays.copyOf(mKeys, capacity);
+                mDirty = Arrays.copyOf(mDirty, capacity);
+            }
+
+            System.arraycopy(mKeys, positionStart, mKeys, end, mSize - positionStart);
+            System.arraycopy(mDirty, positionStart, mDirty, end, mSize - positionStart);
+            Arrays.fill(mDirty, positionStart, end, true);
+
+            mSize = newSize;
+            mVersion++;
+        }
+
+        // 已有的脏位置区间需要随插入一起后移
+        if (mDirtyStart < mDirtyEnd) {
+            if (mDirtyStart >= positionStart) {
+                mDirtyStart += itemCount;
+            }
+            if (mDirtyEnd > positionStart) {
+                mDirtyEnd += itemCount;
+            }
+        }
+
+        markDirty(positionStart, end);
+    }
+
+    private void removeKeys(int positionStart, int itemCount) {
+        if (skipInconsistentEvent(positionStart < 0 || positionStart + itemCount > mSize)) {
+            return;
+        }
+
+        int end = positionStart + itemCount;
+        synchronized (mLock) {
+            System.arraycopy(mKeys, end, mKeys, positionStart, mSize - end);
+            System.arraycopy(mDirty, end, mDirty, positionStart, mSize - end);
+            Arrays.fill(mDirty, mSize - itemCount, mSize, false);
+
+            mSize -= itemCount;
+            mVersion++;
+        }
+
+        if (mDirtyStart < mDirtyEnd) {
+            mDirtyStart = mDirtyStart >= end ? mDirtyStart - itemCount : Math.min(mDirtyStart, positionStart);
+            mDirtyEnd = mDirtyEnd >= end ? mDirtyEnd - itemCount : Math.min(mDirtyEnd, positionStart);
+        }
+    }
+
+    private void moveKey(int fromPosition, int toPosition) {
+        if (skipInconsistentEvent(fromPosition < 0 || fromPosition >= mSize || toPosition < 0 || toPosition >= mSize)) {
+            return;
+        }
+
+        boolean dirty;
+        synchronized (mLock) {
+            long key = mKeys[fromPosition];
+            dirty = mDirty[fromPosition];
+            if (fromPosition < toPosition) {
+                System.arraycopy(mKeys, fromPosition + 1, mKeys, fromPosition, toPosition - fromPosition);
+                System.arraycopy(mDirty, fromPosition + 1, mDirty, fromPosition, toPosition - fromPosition);
+            } else {
+                System.arraycopy(mKeys, toPosition, mKeys, toPosition + 1, fromPosition - toPosition);
+                System.arraycopy(mDirty, toPosition, mDirty, toPosition + 1, fromPosition - toPosition);
+            }
+            mKeys[toPosition] = key;
+            mDirty[toPosition] = dirty;
+
+            mVersion++;
+        }
+
+        // 移动会使 [min, max] 之间的脏位置偏移一位，直接将整个区间并入脏位置区间
+        if (mDirtyStart < mDirtyEnd || dirty) {
+            markDirty(Math.min(fromPosition, toPosition), Math.max(fromPosition, toPosition) + 1);
+        }
+    }
+
+    private static int tableCapacity(int size) {
+        // 负载因子不超过 0.5
+        int capacity = MIN_CAPACITY;
+        while (capacity < size * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int lookup(long[] tableKeys, int[] tablePositions, long key) {
+        int mask = tablePositions.length - 1;
+        for (int slot = hash(key) & mask; tablePositions[slot] != NO_POSITION; slot = (slot + 1) & mask) {
+            if (tableKeys[slot] == key) {
+                return tablePositions[slot];
+            }
+        }
+        return NO_POSITION;
+    }
+
+    private static int hash(long key) {
+        // MurmurHash3 的 fmix64 混合函数
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb93e53e27b1aL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 jrfeng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package recyclerview.helper;
+
+import java.util.Arrays;
+
+/**
+ * 一个基于开放寻址法（线性探测）实现的 long 集合。
+ * <p>
+ * 该类不会对元素进行装箱，{@link #contains(long)}、{@link #add(long)} 与 {@link #remove(long)} 方法的平
+ * 均时间复杂度为 O(1)。
+ */
+final class LongHashSet {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75F;
+
+    // 0 被用于标记空槽，因此需要单独记录集合中是否包含 0
+    private static final long EMPTY = 0;
+
+    private long[] mTable;
+    private boolean mContainsEmptyKey;
+    private int mSize;
+    private int mThreshold;
+
+    // 为 true 时表示 mTable 正被其他快照共享，修改前需要先复制
+    private boolean mShared;
+
+    LongHashSet() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    private LongHashSet(LongHashSet source) {
+        mTable = source.mTable;
+        mContainsEmptyKey = source.mContainsEmptyKey;
+        mSize = source.mSize;
+        mThreshold = source.mThreshold;
+        mShared = true;
+    }
+
+    /**
+     * 创建当前集合的一个快照。
+     * <p>
+     * 快照与当前集合共享底层数组（写时复制），因此创建快照的时间复杂度为 O(1)。当前集合在下一次修改时才
+     * 会复制底层数组，快照中的数据始终不会被修改。调用者不应修改返回的快照。
+     */
+    LongHashSet snapshot() {
+        mShared = true;
+        return new LongHashSet(this);
+    }
+
+    boolean contains(long key) {
+        if (key == EMPTY) {
+            return mContainsEmptyKey;
+        }
+
+        int mask = mTable.length - 1;
+        for (int slot = hash(key) & mask; mTable[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (mTable[slot] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 添加一个元素。
+     *
+     * @return 如果集合中原本不包含该元素则返回 true，否则返回 false。
+     */
+    boolean add(long key) {
+        if (key == EMPTY) {
+            if (mContainsEmptyKey) {
+                return false;
+            }
+
+            mContainsEmptyKey = true;
+            mSize++;
+            return true;
+        }
+
+        int mask = mTable.length - 1;
+        int slot = hash(key) & mask;
+        for (; mTable[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (mTable[slot] == key) {
+                return false;
+            }
+        }
+
+        unshare();
+        mTable[slot] = key;
+        mSize++;
+
+        if (mSize > mThreshold) {
+            rehash(mTable.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * 移除一个元素。
+     *
+     * @return 如果集合中原本包含该元素则返回 true，否则返回 false。
+     */
+    boolean remove(long key) {
+        if (key == EMPTY) {
+            if (!mContainsEmptyKey) {
+                return false;
+            }
+
+            mContainsEmptyKey = false;
+            mSize--;
+            return true;
+        }
+
+        int mask = mTable.length - 1;
+        for (int slot = hash(key) & mask; mTable[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (mTable[slot] == key) {
+                unshare();
+                shiftBack(slot);
+                mSize--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int size() {
+        return mSize;
+    }
+
+    boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    void clear() {
+        if (mShared) {
+            allocate(mTable.length);
+        } else {
+            Arrays.fill(mTable, EMPTY);
+        }
+        mContainsEmptyKey = false;
+        mSize = 0;
+    }
+
+    /**
+     * 以数组形式返回集合中的所有元素，元素的顺序是不确定的。
+     */
+    long[] toArray() {
+        long[] keys = new long[mSize];
+        int index = 0;
+
+        if (mContainsEmptyKey) {
+            keys[index++] = EMPTY;
+        }
+
+        for (long key : mTable) {
+            if (key != EMPTY) {
+                keys[index++] = key;
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * 将集合序列化为字节数组。
+     * <p>
+     * 元素会先被排序，然后以变长整数保存相邻元素的差值，因此取值相近的元素（例如自增 id）只需占用很少的字
+     * 节。
+     */
+    byte[] toByteArray() {
+        long[] keys = toArray();
+        Arrays.sort(keys);
+
+        VarIntBuffer buffer = new VarIntBuffer(keys.length + 8);
+        buffer.writeVarLong(keys.length);
+
+        long prev = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (i == 0) {
+                // ZigZag 编码，使绝对值较小的负数也只需占用很少的字节
+                buffer.writeVarLong((keys[0] << 1) ^ (keys[0] >> 63));
+            } else {
+                // 有序数组中相邻元素的差值按无符号数保存，溢出时同样可以正确还原
+                buffer.writeVarLong(keys[i] - prev);
+            }
+            prev = keys[i];
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * 从 {@link #toByteArray()} 方法返回的字节数组中恢复集合。
+     *
+     * @throws IllegalArgumentException 如果数据已损坏，则会抛出该异常。
+     */
+    static LongHashSet fromByteArray(byte[] bytes) throws IllegalArgumentException {
+        VarIntBuffer buffer = new VarIntBuffer(bytes);
+        LongHashSet set = new LongHashSet();
+
+        int size = buffer.readVarInt();
+        long prev = 0;
+        for (int i = 0; i < size; i++) {
+            long value = buffer.readVarLong();
+            long key = (i == 0) ? ((value >>> 1) ^ -(value & 1)) : prev + value;
+            set.add(key);
+            prev = key;
+        }
+
+        if (buffer.hasRemaining()) {
+            throw new IllegalArgumentException("unexpected trailing data");
+        }
+
+        return set;
+    }
+
+    // *******************************private****************************
+
+    private void allocate(int capacity) {
+        mTable = new long[capacity];
+        mThreshold = (int) (capacity * LOAD_FACTOR);
+        mShared = false;
+    }
+
+    // 如果底层数组正被快照共享，则先复制一份
+    private void unshare() {
+        if (mShared) {
+            mTable = Arrays.copyOf(mTable, mTable.length);
+            mShared = false;
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldTable = mTable;
+        allocate(newCapacity);
+
+        int mask = newCapacity - 1;
+        for (long key : oldTable) {
+            if (key == EMPTY) {
+                continue;
+            }
+
+            int slot = hash(key) & mask;
+            while (mTable[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            mTable[slot] = key;
+        }
+    }
+
+    // 删除 slot 处的元素，并将其后同一探测序列中的元素前移，从而避免使用删除标记
+    private void shiftBack(int slot) {
+        int mask = mTable.length - 1;
+        int gap = slot;
+
+        for (int i = (gap + 1) & mask; mTable[i] != EMPTY; i = (i + 1) & mask) {
+            int home = hash(mTable[i]) & mask;
+            // 如果元素 i 的理想位置不在 (gap, i] 之间，则可以将其移动到 gap 处
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                mTable[gap] = mTable[i];
+                gap = i;
+            }
+        }
+
+        mTable[gap] = EMPTY;
+    }
+
+    private static int hash(long key) {
+        // MurmurHash3 的 fmix64 混合函数
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb93e53e27b1aL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
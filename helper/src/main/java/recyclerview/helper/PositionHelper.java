@@ -1,114 +1,528 @@
 package recyclerview.helper;
 
+import android.view.View;
+
 import androidx.annotation.NonNull;
+import androidx.core.view.ViewCompat;
 import androidx.recyclerview.widget.RecyclerView;
 
+import java.util.Arrays;
+import java.util.List;
 
+/**
+ * 当列表项的位置因插入、移除、移动而改变时，通知受影响的列表项。
+ * <p>
+ * 只会遍历当前已附加到 RecyclerView 上的列表项，以及最近被分离但可能会被直接复用（不会重新绑定）的缓存
+ * 列表项，因此每次改变的开销只与可见列表项的数量有关，而与列表的长度无关。其他列表项会在下一次被绑定时
+ * 获得新的位置。
+ * <p>
+ * 被预取（prefetch）的列表项会在附加之前就被绑定，PositionHelper 无法感知。如果需要让这些列表项也能收到
+ * 位置改变的通知，请在 Adapter 的 onBindViewHolder 方法中调用
+ * {@link #onBindViewHolder(RecyclerView.ViewHolder, int)} 方法。
+ * <p>
+ * 启用 “按帧合并” 后（见 {@link #setCoalesceUpdates(boolean)}），同一帧内的多次改变（例如
+ * {@code DiffUtil.DiffResult.dispatchUpdatesTo} 产生的一系列通知）会被合并，每个列表项在下一帧只会收到
+ * 一次 {@code onPositionChanged(原位置, 最终位置)} 回调。
+ */
 public class PositionHelper<T extends RecyclerView.ViewHolder & PositionHelper.OnPositionChangeListener> {
+    /**
+     * 当列表项没有实现 {@link OnPositionChangeListener} 接口时，PositionHelper 会调用
+     * notifyItemChanged(position, payload) 方法通知该列表项更新位置，此时会携带该 payload。
+     * <p>
+     * 可以在 RecyclerView.Adapter 的 onBindViewHolder(holder, position, payloads) 方法中使用
+     * {@link #isPositionChangedPayload(List)} 方法进行判断，如果为 true，则只需更新列表项中与位置有关的
+     * 内容，而无需重新绑定整个列表项。
+     */
+    public static final Object PAYLOAD_POSITION_CHANGED = new Object();
+
+    // 最多记录的已分离列表项的数量，应大于 RecyclerView 的缓存与预取数量之和
+    private static final int MAX_DETACHED_HOLDERS = 32;
+
+    // 最多保留的检查点的数量
+    private static final int MAX_CHECKPOINTS = 16;
+
     private RecyclerView.Adapter<T> mAdapter;
     private RecyclerView mRecyclerView;
     private RecyclerView.AdapterDataObserver mAdapterDataObserver;
+    private RecyclerView.OnChildAttachStateChangeListener mChildAttachStateChangeListener;
+
+    // 已分离的列表项、它们当前显示的位置（绑定或分离时的位置），以及它们当前应在的位置（会随后续的改变同
+    // 步更新）
+    private final RecyclerView.ViewHolder[] mDetachedHolders;
+    private final int[] mDetachedBoundPositions;
+    private final int[] mDetachedPositions;
+    private int mDetachedCount;
+
+    // 按帧合并模式下，等待在下一帧通知的列表项，以及它们在本帧第一次改变之前与当前的位置
+    private boolean mCoalesceUpdates;
+    private RecyclerView.ViewHolder[] mPendingHolders;
+    private int[] mPendingOldPositions;
+    private int[] mPendingNewPositions;
+    private int mPendingCount;
+    private boolean mFlushScheduled;
+    private Runnable mFlushRunnable;
+
+    // 当前版本号，每次插入、移除、移动或 notifyDataSetChanged 都会使版本号加 1
+    private int mVersion;
+    // 按版本号升序排列的检查点，以及从各检查点到当前版本的位置映射
+    private final int[] mCheckpointVersions;
+    private final PositionMapping[] mCheckpointMappings;
+    private int mCheckpointCount;
 
     public PositionHelper(@NonNull RecyclerView.Adapter<T> adapter) {
         NonNullUtil.requireNonNull(adapter);
         mAdapter = adapter;
+        mDetachedHolders = new RecyclerView.ViewHolder[MAX_DETACHED_HOLDERS];
+        mDetachedBoundPositions = new int[MAX_DETACHED_HOLDERS];
+        mDetachedPositions = new int[MAX_DETACHED_HOLDERS];
+        mCheckpointVersions = new int[MAX_CHECKPOINTS];
+        mCheckpointMappings = new PositionMapping[MAX_CHECKPOINTS];
+        mPendingHolders = new RecyclerView.ViewHolder[0];
+        mPendingOldPositions = new int[0];
+        mPendingNewPositions = new int[0];
+        mFlushRunnable = new Runnable() {
+            @Override
+            public void run() {
+                mFlushScheduled = false;
+                flushPendingChanges();
+            }
+        };
         initAdapterDataObserver();
+        initChildAttachStateChangeListener();
     }
 
     private void initAdapterDataObserver() {
         mAdapterDataObserver = new RecyclerView.AdapterDataObserver() {
             @Override
-            public void onItemRangeInserted(int positionStart, int itemCount) {
-                for (int i = positionStart; i < mAdapter.getItemCount(); i++) {
-                    RecyclerView.ViewHolder viewHolder = mRecyclerView.findViewHolderForAdapterPosition(i);
-                    if (!(viewHolder instanceof PositionHelper.OnPositionChangeListener)) {
-                        mAdapter.notifyItemChanged(i);
-                        continue;
-                    }
-
-                    OnPositionChangeListener listener = (OnPositionChangeListener) viewHolder;
-                    listener.onPositionChanged(i, i + itemCount);
+            public void onChanged() {
+                mVersion++;
+                for (int i = 0; i < mCheckpointCount; i++) {
+                    mCheckpointMappings[i].invalidate();
                 }
+
+                // 所有列表项都会被重新绑定
+                clearPendingChanges();
+                clearDetachedHolders();
             }
 
             @Override
-            public void onItemRangeRemoved(int positionStart, int itemCount) {
-                for (int i = (positionStart + itemCount); i < mAdapter.getItemCount(); i++) {
-                    RecyclerView.ViewHolder viewHolder = mRecyclerView.findViewHolderForAdapterPosition(i);
-                    if (!(viewHolder instanceof PositionHelper.OnPositionChangeListener)) {
-                        mAdapter.notifyItemChanged(i);
-                        continue;
-                    }
-
-                    OnPositionChangeListener listener = (OnPositionChangeListener) viewHolder;
-                    listener.onPositionChanged(i, i - itemCount);
+            public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+                // 忽略由 PositionHelper 自身发出的通知
+                if (payload == PAYLOAD_POSITION_CHANGED) {
+                    return;
                 }
+
+                // 会被完整地重新绑定的列表项无需再通知位置改变
+                if (payload == null) {
+                    dropPendingChanges(positionStart, positionStart + itemCount);
+                }
+            }
+
+            @Override
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                dispatchPositionChanges(PositionMapping.OP_INSERT, positionStart, itemCount, 0);
+            }
+
+            @Override
+            public void onItemRangeRemoved(int positionStart, int itemCount) {
+                dispatchPositionChanges(PositionMapping.OP_REMOVE, positionStart, itemCount, 0);
             }
 
             @Override
             public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
-                if (fromPosition > toPosition) {
-                    for (int i = toPosition; i < fromPosition; i++) {
-                        RecyclerView.ViewHolder viewHolder = mRecyclerView.findViewHolderForAdapterPosition(i);
-                        if (!(viewHolder instanceof OnPositionChangeListener)) {
-                            mAdapter.notifyItemChanged(i);
-                            continue;
-                        }
-
-                        OnPositionChangeListener listener = (OnPositionChangeListener) viewHolder;
-                        listener.onPositionChanged(i, i + itemCount);
-                    }
-
-                    int interval = fromPosition - toPosition;
-                    for (int i = fromPosition; i < (fromPosition + itemCount); i++) {
-                        RecyclerView.ViewHolder viewHolder = mRecyclerView.findViewHolderForAdapterPosition(i);
-                        if (!(viewHolder instanceof OnPositionChangeListener)) {
-                            mAdapter.notifyItemChanged(i);
-                            continue;
-                        }
-
-                        OnPositionChangeListener listener = (OnPositionChangeListener) viewHolder;
-                        listener.onPositionChanged(i, i - interval);
-                    }
+                dispatchPositionChanges(PositionMapping.OP_MOVE, fromPosition, itemCount, toPosition);
+            }
+        };
+    }
+
+    private void initChildAttachStateChangeListener() {
+        mChildAttachStateChangeListener = new RecyclerView.OnChildAttachStateChangeListener() {
+            @Override
+            public void onChildViewAttachedToWindow(@NonNull View view) {
+                RecyclerView.ViewHolder viewHolder = mRecyclerView.getChildViewHolder(view);
+                int index = indexOfDetachedHolder(viewHolder);
+                if (index < 0) {
                     return;
                 }
 
-                if (fromPosition < toPosition) {
-                    for (int i = (fromPosition + itemCount); i < (toPosition + itemCount); i++) {
-                        RecyclerView.ViewHolder viewHolder = mRecyclerView.findViewHolderForAdapterPosition(i);
-                        if (!(viewHolder instanceof OnPositionChangeListener)) {
-                            mAdapter.notifyItemChanged(i);
-                            continue;
-                        }
-
-                        OnPositionChangeListener listener = (OnPositionChangeListener) viewHolder;
-                        listener.onPositionChanged(i, i - itemCount);
-                    }
-
-                    int interval = toPosition - fromPosition;
-                    for (int i = fromPosition; i < (fromPosition + itemCount); i++) {
-                        RecyclerView.ViewHolder viewHolder = mRecyclerView.findViewHolderForAdapterPosition(i);
-                        if (!(viewHolder instanceof OnPositionChangeListener)) {
-                            mAdapter.notifyItemChanged(i);
-                            continue;
-                        }
-
-                        OnPositionChangeListener listener = (OnPositionChangeListener) viewHolder;
-                        listener.onPositionChanged(i, i + interval);
-                    }
+                int boundPosition = mDetachedBoundPositions[index];
+                int expectedPosition = mDetachedPositions[index];
+                removeDetachedHolder(index);
+
+                // RecyclerView 会同步更新缓存中的列表项的位置，因此当前位置与跟踪的位置不一致时，说明该列表项
+                // 已被回收到 RecycledViewPool 中并重新绑定到了其他列表项上，无需通知
+                int position = viewHolder.getAdapterPosition();
+                if (position == RecyclerView.NO_POSITION || position != expectedPosition) {
+                    return;
+                }
+
+                // 从缓存中直接复用的列表项不会被重新绑定，需要补发位置改变的通知
+                if (position != boundPosition) {
+                    notifyPositionChanged(viewHolder, boundPosition, position);
+                }
+            }
+
+            @Override
+            public void onChildViewDetachedFromWindow(@NonNull View view) {
+                RecyclerView.ViewHolder viewHolder = mRecyclerView.getChildViewHolder(view);
+                int position = viewHolder.getAdapterPosition();
+                if (position != RecyclerView.NO_POSITION
+                        && viewHolder instanceof OnPositionChangeListener
+                        && indexOfDetachedHolder(viewHolder) < 0) {
+                    addDetachedHolder(viewHolder, position, position);
                 }
             }
         };
     }
 
-    public void attachToRecyclerView(@NonNull RecyclerView recyclerView) {
+    /**
+     * 判断 payloads 是否只包含 {@link #PAYLOAD_POSITION_CHANGED}。
+     *
+     * @param payloads onBindViewHolder(holder, position, payloads) 方法的 payloads 参数，不能为 null。
+     * @return 如果 payloads 不为空且只包含 {@link #PAYLOAD_POSITION_CHANGED} 则返回 true，否则返回
+     * false。返回 true 时只需更新列表项中与位置有关的内容。
+     */
+    public static boolean isPositionChangedPayload(@NonNull List<Object> payloads) {
+        NonNullUtil.requireNonNull(payloads);
+
+        if (payloads.isEmpty()) {
+            return false;
+        }
+
+        for (int i = 0; i < payloads.size(); i++) {
+            if (payloads.get(i) != PAYLOAD_POSITION_CHANGED) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 附加到 RecyclerView 上。
+     * <p>
+     * 需要在 {@code RecyclerView.setAdapter(Adapter)} 之后调用（例如在 Adapter 的
+     * {@code onAttachedToRecyclerView} 方法中调用），以保证在 RecyclerView 处理改变之前收到通知。
+     *
+     * @throws IllegalStateException 如果 recyclerView 还没有设置 Adapter，则抛出该异常。
+     */
+    public void attachToRecyclerView(@NonNull RecyclerView recyclerView) throws IllegalStateException {
         NonNullUtil.requireNonNull(recyclerView);
+        if (recyclerView.getAdapter() == null) {
+            throw new IllegalStateException("must be called after RecyclerView.setAdapter(Adapter)");
+        }
+
         mRecyclerView = recyclerView;
-        mAdapter.registerAdapterDataObserver(mAdapterDataObserver);
+        AdapterObserverHub.register(mAdapter, mAdapterDataObserver, AdapterObserverHub.ORDER_POSITION_HELPER);
+        mRecyclerView.addOnChildAttachStateChangeListener(mChildAttachStateChangeListener);
     }
 
     public void detach() {
-        mAdapter.unregisterAdapterDataObserver(mAdapterDataObserver);
+        AdapterObserverHub.unregister(mAdapter, mAdapterDataObserver);
+        if (mRecyclerView != null) {
+            mRecyclerView.removeOnChildAttachStateChangeListener(mChildAttachStateChangeListener);
+            mRecyclerView.removeCallbacks(mFlushRunnable);
+        }
+
+        mFlushScheduled = false;
+        flushPendingChanges();
+
+        clearDetachedHolders();
+    }
+
+    /**
+     * 记录列表项的绑定。可选，应在 Adapter 的 onBindViewHolder 方法中调用。
+     * <p>
+     * 调用该方法后，被预取（在附加之前就已绑定）的列表项也会被跟踪，在附加之前位置发生改变时同样会收到通知；
+     * 同时被重新绑定的已分离列表项也会被准确地识别出来。不调用该方法时，只会跟踪曾经附加过的列表项。
+     *
+     * @param holder   被绑定的列表项，不能为 null。
+     * @param position 绑定的位置。
+     */
+    public void onBindViewHolder(@NonNull T holder, int position) {
+        NonNullUtil.requireNonNull(holder);
+
+        int index = indexOfDetachedHolder(holder);
+        if (index >= 0) {
+            mDetachedBoundPositions[index] = position;
+            mDetachedPositions[index] = position;
+            return;
+        }
+
+        // 尚未附加的列表项：被预取的列表项，或者即将附加的列表项（附加时会被移除）
+        if (mRecyclerView != null && holder.itemView.getParent() == null) {
+            addDetachedHolder(holder, position, position);
+        }
+    }
+
+    /**
+     * 设置是否按帧合并位置改变的通知，默认为 false。
+     * <p>
+     * 如果设为 true，则会记录同一帧内累积的位置映射，并在下一帧（{@code postOnAnimation}）统一通知，每个
+     * 列表项只会收到一次 {@code onPositionChanged(原位置, 最终位置)} 回调，位置最终未改变的列表项不会收到
+     * 回调。设为 false 时会立即通知所有尚未通知的改变。
+     *
+     * @param coalesceUpdates 是否按帧合并位置改变的通知。
+     */
+    public void setCoalesceUpdates(boolean coalesceUpdates) {
+        mCoalesceUpdates = coalesceUpdates;
+
+        if (!coalesceUpdates) {
+            if (mFlushScheduled && mRecyclerView != null) {
+                mRecyclerView.removeCallbacks(mFlushRunnable);
+            }
+            mFlushScheduled = false;
+            flushPendingChanges();
+        }
+    }
+
+    /**
+     * 是否按帧合并位置改变的通知。
+     */
+    public boolean isCoalesceUpdates() {
+        return mCoalesceUpdates;
+    }
+
+    /**
+     * 获取当前的版本号，并在当前版本创建一个检查点。
+     * <p>
+     * 之后可以使用 {@link #currentPositionOf(int, int)} 方法将该版本下的位置（例如待处理的点击、曝光统计
+     * 或滚动锚点中保存的位置）转换为当前的位置。最多只会保留最近的 16 个检查点，过旧的检查点会被丢弃。
+     * 没有检查点时，插入、移除、移动不会产生任何额外开销。
+     *
+     * @return 当前的版本号。
+     */
+    public int getVersion() {
+        if (mCheckpointCount > 0 && mCheckpointVersions[mCheckpointCount - 1] == mVersion) {
+            return mVersion;
+        }
+
+        PositionMapping mapping;
+        if (mCheckpointCount == MAX_CHECKPOINTS) {
+            // 丢弃最旧的检查点，并复用它的映射
+            mapping = mCheckpointMappings[0];
+            System.arraycopy(mCheckpointVersions, 1, mCheckpointVersions, 0, MAX_CHECKPOINTS - 1);
+            System.arraycopy(mCheckpointMappings, 1, mCheckpointMappings, 0, MAX_CHECKPOINTS - 1);
+            mCheckpointCount--;
+            mapping.reset();
+        } else {
+            mapping = new PositionMapping();
+        }
+
+        mCheckpointVersions[mCheckpointCount] = mVersion;
+        mCheckpointMappings[mCheckpointCount] = mapping;
+        mCheckpointCount++;
+        return mVersion;
+    }
+
+    /**
+     * 将 sinceVersion 版本下的位置转换为当前的位置。
+     * <p>
+     * 时间复杂度为 O(log s)，s 为该检查点之后累积的位置映射的分段数量，与列表的长度无关。
+     *
+     * @param oldPosition  sinceVersion 版本下的位置。
+     * @param sinceVersion 由 {@link #getVersion()} 方法返回的版本号。
+     * @return 该列表项当前的位置。如果该列表项已被移除，或者之后调用过 notifyDataSetChanged，则返回
+     * {@code RecyclerView.NO_POSITION}。
+     * @throws IllegalArgumentException 如果 sinceVersion 不是由 {@link #getVersion()} 方法返回的版本号，
+     *                                  或者对应的检查点已被丢弃，则会抛出该异常。
+     */
+    public int currentPositionOf(int oldPosition, int sinceVersion) throws IllegalArgumentException {
+        int low = 0;
+        int high = mCheckpointCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int version = mCheckpointVersions[mid];
+            if (version < sinceVersion) {
+                low = mid + 1;
+            } else if (version > sinceVersion) {
+                high = mid - 1;
+            } else {
+                return mCheckpointMappings[mid].map(oldPosition);
+            }
+        }
+
+        throw new IllegalArgumentException("unknown or expired version: " + sinceVersion);
+    }
+
+    // *******************************private****************************
+
+    private void dispatchPositionChanges(int op, int positionStart, int itemCount, int toPosition) {
+        mVersion++;
+        for (int i = 0; i < mCheckpointCount; i++) {
+            mCheckpointMappings[i].apply(op, positionStart, itemCount, toPosition);
+        }
+
+        if (mRecyclerView == null) {
+            return;
+        }
+
+        if (mCoalesceUpdates) {
+            recordPendingChanges(op, positionStart, itemCount, toPosition);
+        } else {
+            notifyAttachedHolders(op, positionStart, itemCount, toPosition);
+        }
+
+        for (int i = mDetachedCount - 1; i >= 0; i--) {
+            int newPosition = PositionMapping.applyOp(op, positionStart, itemCount, toPosition,
+                    mDetachedPositions[i]);
+
+            // 已被回收到 RecycledViewPool 中的列表项没有位置，无需继续跟踪
+            if (newPosition == RecyclerView.NO_POSITION
+                    || mDetachedHolders[i].getAdapterPosition() == RecyclerView.NO_POSITION) {
+                removeDetachedHolder(i);
+            } else {
+                mDetachedPositions[i] = newPosition;
+            }
+        }
+    }
+
+    private void notifyAttachedHolders(int op, int positionStart, int itemCount, int toPosition) {
+        for (int i = 0, count = mRecyclerView.getChildCount(); i < count; i++) {
+            RecyclerView.ViewHolder viewHolder = mRecyclerView.getChildViewHolder(mRecyclerView.getChildAt(i));
+            int oldPosition = viewHolder.getAdapterPosition();
+            if (oldPosition == RecyclerView.NO_POSITION) {
+                continue;
+            }
+
+            int newPosition = PositionMapping.applyOp(op, positionStart, itemCount, toPosition, oldPosition);
+            if (newPosition != RecyclerView.NO_POSITION && newPosition != oldPosition) {
+                notifyPositionChanged(viewHolder, oldPosition, newPosition);
+            }
+        }
+    }
+
+    private void recordPendingChanges(int op, int positionStart, int itemCount, int toPosition) {
+        // 记录本帧内第一次受到改变影响的列表项的原位置
+        for (int i = 0, count = mRecyclerView.getChildCount(); i < count; i++) {
+            RecyclerView.ViewHolder viewHolder = mRecyclerView.getChildViewHolder(mRecyclerView.getChildAt(i));
+            int position = viewHolder.getAdapterPosition();
+            if (position != RecyclerView.NO_POSITION && indexOfPendingHolder(viewHolder) < 0) {
+                addPendingHolder(viewHolder, position);
+            }
+        }
+
+        for (int i = 0; i < mPendingCount; i++) {
+            if (mPendingNewPositions[i] != RecyclerView.NO_POSITION) {
+                mPendingNewPositions[i] = PositionMapping.applyOp(op, positionStart, itemCount, toPosition,
+                        mPendingNewPositions[i]);
+            }
+        }
+
+        if (!mFlushScheduled) {
+            mFlushScheduled = true;
+            ViewCompat.postOnAnimation(mRecyclerView, mFlushRunnable);
+        }
+    }
+
+    private void flushPendingChanges() {
+        for (int i = 0; i < mPendingCount; i++) {
+            int oldPosition = mPendingOldPositions[i];
+            int newPosition = mPendingNewPositions[i];
+            if (newPosition == RecyclerView.NO_POSITION || newPosition == oldPosition) {
+                continue;
+            }
+
+            RecyclerView.ViewHolder viewHolder = mPendingHolders[i];
+            if (viewHolder instanceof OnPositionChangeListener) {
+                ((OnPositionChangeListener) viewHolder).onPositionChanged(oldPosition, newPosition);
+            } else {
+                // 此时所有改变都已通知完毕，因此使用最终位置
+                mAdapter.notifyItemChanged(newPosition, PAYLOAD_POSITION_CHANGED);
+            }
+        }
+        clearPendingChanges();
+    }
+
+    // 移除当前位置在 [start, end) 之间的待通知列表项
+    private void dropPendingChanges(int start, int end) {
+        int count = 0;
+        for (int i = 0; i < mPendingCount; i++) {
+            int newPosition = mPendingNewPositions[i];
+            if (newPosition >= start && newPosition < end) {
+                continue;
+            }
+
+            mPendingHolders[count] = mPendingHolders[i];
+            mPendingOldPositions[count] = mPendingOldPositions[i];
+            mPendingNewPositions[count] = newPosition;
+            count++;
+        }
+
+        Arrays.fill(mPendingHolders, count, mPendingCount, null);
+        mPendingCount = count;
+    }
+
+    private void clearPendingChanges() {
+        Arrays.fill(mPendingHolders, 0, mPendingCount, null);
+        mPendingCount = 0;
+    }
+
+    private int indexOfPendingHolder(RecyclerView.ViewHolder viewHolder) {
+        for (int i = 0; i < mPendingCount; i++) {
+            if (mPendingHolders[i] == viewHolder) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void addPendingHolder(RecyclerView.ViewHolder viewHolder, int position) {
+        if (mPendingCount == mPendingHolders.length) {
+            int newCapacity = Math.max(16, mPendingCount * 2);
+            mPendingHolders = Arrays.copyOf(mPendingHolders, newCapacity);
+            mPendingOldPositions = Arrays.copyOf(mPendingOldPositions, newCapacity);
+            mPendingNewPositions = Arrays.copyOf(mPendingNewPositions, newCapacity);
+        }
+
+        mPendingHolders[mPendingCount] = viewHolder;
+        mPendingOldPositions[mPendingCount] = position;
+        mPendingNewPositions[mPendingCount] = position;
+        mPendingCount++;
+    }
+
+    private void notifyPositionChanged(RecyclerView.ViewHolder viewHolder, int oldPosition, int newPosition) {
+        if (!(viewHolder instanceof OnPositionChangeListener)) {
+            mAdapter.notifyItemChanged(oldPosition, PAYLOAD_POSITION_CHANGED);
+            return;
+        }
+
+        OnPositionChangeListener listener = (OnPositionChangeListener) viewHolder;
+        listener.onPositionChanged(oldPosition, newPosition);
+    }
+
+    private int indexOfDetachedHolder(RecyclerView.ViewHolder viewHolder) {
+        for (int i = 0; i < mDetachedCount; i++) {
+            if (mDetachedHolders[i] == viewHolder) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void addDetachedHolder(RecyclerView.ViewHolder viewHolder, int boundPosition, int position) {
+        if (mDetachedCount == MAX_DETACHED_HOLDERS) {
+            // 丢弃最早分离的列表项，它通常已被回收到 RecycledViewPool 中
+            removeDetachedHolder(0);
+        }
+
+        mDetachedHolders[mDetachedCount] = viewHolder;
+        mDetachedBoundPositions[mDetachedCount] = boundPosition;
+        mDetachedPositions[mDetachedCount] = position;
+        mDetachedCount++;
+    }
+
+    private void removeDetachedHolder(int index) {
+        int moved = mDetachedCount - index - 1;
+        System.arraycopy(mDetachedHolders, index + 1, mDetachedHolders, index, moved);
+        System.arraycopy(mDetachedBoundPositions, index + 1, mDetachedBoundPositions, index, moved);
+        System.arraycopy(mDetachedPositions, index + 1, mDetachedPositions, index, moved);
+        mDetachedCount--;
+        mDetachedHolders[mDetachedCount] = null;
+    }
+
+    private void clearDetachedHolders() {
+        Arrays.fill(mDetachedHolders, 0, mDetachedCount, null);
+        mDetachedCount = 0;
     }
 
     public interface OnPositionChangeListener {
@@ -0,0 +1,242 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 jrfeng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package recyclerview.helper;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.Arrays;
+
+/**
+ * 记录从某一时刻（检查点）开始，列表项的位置经过一系列插入、移除、移动之后的映射关系。
+ * <p>
+ * 映射被保存为按原位置升序排列的若干分段，每个分段内的位置都被平移了相同的距离（或都已被移除），相邻且
+ * 平移距离相同的分段会被合并。因此 {@link #map(int)} 方法的时间复杂度为 O(log s)，s 为分段的数量，它只
+ * 与检查点之后的改变次数有关，而与列表的长度无关。
+ */
+final class PositionMapping {
+    static final int OP_INSERT = 0;
+    static final int OP_REMOVE = 1;
+    static final int OP_MOVE = 2;
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    // 第 i 个分段覆盖的原位置为 [mOldStarts[i], mOldStarts[i + 1])，最后一个分段没有上界
+    private int[] mOldStarts;
+    // 第 i 个分段的起始原位置当前所在的位置，已被移除时为 NO_POSITION
+    private int[] mNewStarts;
+    private int mCount;
+
+    // 重建分段时使用的缓冲区
+    private int[] mBufferOldStarts;
+    private int[] mBufferNewStarts;
+    private int mBufferCount;
+
+    private final int[] mBreakpoints = new int[3];
+
+    PositionMapping() {
+        mOldStarts = new int[DEFAULT_CAPACITY];
+        mNewStarts = new int[DEFAULT_CAPACITY];
+        mBufferOldStarts = new int[DEFAULT_CAPACITY];
+        mBufferNewStarts = new int[DEFAULT_CAPACITY];
+        reset();
+    }
+
+    /**
+     * 重置为恒等映射。
+     */
+    void reset() {
+        mOldStarts[0] = 0;
+        mNewStarts[0] = 0;
+        mCount = 1;
+    }
+
+    /**
+     * 将所有位置标记为已移除，用于处理 notifyDataSetChanged。
+     */
+    void invalidate() {
+        mOldStarts[0] = 0;
+        mNewStarts[0] = RecyclerView.NO_POSITION;
+        mCount = 1;
+    }
+
+    /**
+     * 获取检查点时的 position 现在所在的位置。
+     *
+     * @return position 现在所在的位置，如果该列表项已被移除，则返回 NO_POSITION。
+     */
+    int map(int position) {
+        if (position < 0) {
+            return RecyclerView.NO_POSITION;
+        }
+
+        // 最后一个起始原位置小于或等于 position 的分段，由于 mOldStarts[0] 为 0，因此该分段一定存在
+        int low = 0;
+        int high = mCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (mOldStarts[mid] <= position) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        int index = low - 1;
+        int newStart = mNewStarts[index];
+        return newStart == RecyclerView.NO_POSITION
+                ? RecyclerView.NO_POSITION
+                : newStart + (position - mOldStarts[index]);
+    }
+
+    int segmentCount() {
+        return mCount;
+    }
+
+    /**
+     * 应用一次改变，参数的含义与 {@link #applyOp(int, int, int, int, int)} 相同。
+     */
+    void apply(int op, int positionStart, int itemCount, int toPosition) {
+        // 改变的分界点（当前位置，升序），分界点之间的位置会被平移相同的距离
+        int breakpointCount;
+        switch (op) {
+            case OP_INSERT:
+                mBreakpoints[0] = positionStart;
+                breakpointCount = 1;
+                break;
+            case OP_REMOVE:
+                mBreakpoints[0] = positionStart;
+                mBreakpoints[1] = positionStart + itemCount;
+                breakpointCount = 2;
+                break;
+            case OP_MOVE:
+                if (positionStart == toPosition) {
+                    return;
+                }
+                mBreakpoints[0] = Math.min(positionStart, toPosition);
+                mBreakpoints[1] = positionStart < toPosition ? positionStart + itemCount : positionStart;
+                mBreakpoints[2] = Math.max(positionStart, toPosition) + itemCount;
+                breakpointCount = 3;
+                break;
+            default:
+                return;
+        }
+
+        mBufferCount = 0;
+        for (int i = 0; i < mCount; i++) {
+            int oldStart = mOldStarts[i];
+            int newStart = mNewStarts[i];
+            if (newStart == RecyclerView.NO_POSITION) {
+                appendSegment(oldStart, RecyclerView.NO_POSITION);
+                continue;
+            }
+
+            // 分段当前覆盖的位置为 [newStart, newEnd)
+            long newEnd = (i + 1 < mCount) ? (long) newStart + (mOldStarts[i + 1] - oldStart) : Long.MAX_VALUE;
+
+            int pieceStart = newStart;
+            for (int j = 0; j < breakpointCount; j++) {
+                int breakpoint = mBreakpoints[j];
+                if (breakpoint > pieceStart && breakpoint < newEnd) {
+                    appendSegment(oldStart + (pieceStart - newStart),
+                            applyOp(op, positionStart, itemCount, toPosition, pieceStart));
+                    pieceStart = breakpoint;
+                }
+            }
+            appendSegment(oldStart + (pieceStart - newStart),
+                    applyOp(op, positionStart, itemCount, toPosition, pieceStart));
+        }
+
+        int[] oldStarts = mOldStarts;
+        int[] newStarts = mNewStarts;
+        mOldStarts = mBufferOldStarts;
+        mNewStarts = mBufferNewStarts;
+        mCount = mBufferCount;
+        mBufferOldStarts = oldStarts;
+        mBufferNewStarts = newStarts;
+    }
+
+    /**
+     * 计算 position 在一次改变之后的位置。
+     *
+     * @param op            改变的类型，{@link #OP_INSERT}、{@link #OP_REMOVE} 或 {@link #OP_MOVE}
+     * @param positionStart 插入、移除的起始位置，或移动的原位置
+     * @param itemCount     列表项的数量
+     * @param toPosition    移动的目标位置，仅对 {@link #OP_MOVE} 有效
+     * @param position      改变之前的位置
+     * @return 改变之后的位置，如果该位置已被移除，则返回 NO_POSITION。
+     */
+    static int applyOp(int op, int positionStart, int itemCount, int toPosition, int position) {
+        switch (op) {
+            case OP_INSERT:
+                return position >= positionStart ? position + itemCount : position;
+            case OP_REMOVE:
+                if (position < positionStart) {
+                    return position;
+                }
+                return position >= positionStart + itemCount ? position - itemCount : RecyclerView.NO_POSITION;
+            case OP_MOVE:
+                if (position >= positionStart && position < positionStart + itemCount) {
+                    return position - positionStart + toPosition;
+                }
+                if (positionStart < toPosition
+                        && position >= positionStart + itemCount && position < toPosition + itemCount) {
+                    return position - itemCount;
+                }
+                if (positionStart > toPosition && position >= toPosition && position < positionStart) {
+                    return position + itemCount;
+                }
+                return position;
+            default:
+                return position;
+        }
+    }
+
+    // *******************************private****************************
+
+    // 在缓冲区末尾追加一个分段，并与前一个可以合并的分段合并
+    private void appendSegment(int oldStart, int newStart) {
+        if (mBufferCount > 0) {
+            int prevOldStart = mBufferOldStarts[mBufferCount - 1];
+            int prevNewStart = mBufferNewStarts[mBufferCount - 1];
+            if (prevNewStart == RecyclerView.NO_POSITION) {
+                if (newStart == RecyclerView.NO_POSITION) {
+                    return;
+                }
+            } else if (newStart != RecyclerView.NO_POSITION
+                    && prevNewStart + (oldStart - prevOldStart) == newStart) {
+                return;
+            }
+        }
+
+        if (mBufferCount == mBufferOldStarts.length) {
+            int newCapacity = mBufferCount * 2;
+            mBufferOldStarts = Arrays.copyOf(mBufferOldStarts, newCapacity);
+            mBufferNewStarts = Arrays.copyOf(mBufferNewStarts, newCapacity);
+        }
+
+        mBufferOldStarts[mBufferCount] = oldStart;
+        mBufferNewStarts[mBufferCount] = newStart;
+        mBufferCount++;
+    }
+}
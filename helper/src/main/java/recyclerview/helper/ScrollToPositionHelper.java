@@ -23,22 +23,30 @@
  */
 package recyclerview.helper;
 
-import android.animation.Animator;
-import android.animation.AnimatorListenerAdapter;
 import android.animation.TimeInterpolator;
 import android.animation.ValueAnimator;
+import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.drawable.ColorDrawable;
-import android.graphics.drawable.Drawable;
-import android.graphics.drawable.LayerDrawable;
+import android.graphics.Paint;
+import android.graphics.Rect;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.SparseIntArray;
 import android.view.View;
+import android.view.animation.AnimationUtils;
 import android.view.animation.LinearInterpolator;
 
 import androidx.annotation.ColorInt;
 import androidx.annotation.NonNull;
 import androidx.annotation.RequiresApi;
+import androidx.core.view.ViewCompat;
+import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
+import androidx.recyclerview.widget.StaggeredGridLayoutManager;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
 
 /**
  * 滚动到 RecyclerView 的某一 Item 位置时对该 Item 做背景闪动动画。
@@ -47,9 +55,32 @@ import androidx.recyclerview.widget.RecyclerView;
  * <p>
  * 默认情况下，背景闪动动画的颜色为黄色（Color.YELLOW）；持续时为 300ms；插值器为 LinearInterpolator。
  * <p>
+ * 背景闪动动画由一个 RecyclerView.ItemDecoration 以半透明覆盖层的形式绘制在列表项的上方，并根据列表项
+ * 的位置查找要绘制的列表项，因此不会修改列表项的 View，即使列表项在动画期间被重新布局或回收复用也不会受
+ * 到影响。由于覆盖层位于列表项的内容之上，为了不遮挡列表项中的文字与图片，覆盖层的最大不透明度为背景闪动
+ * 颜色的不透明度的 40%（例如默认的黄色最多以约 40% 的不透明度覆盖在列表项上）。
+ * <p>
  * 可以调用 {@link #setAnimDuration(int)} 方法和 {@link #setAnimInterpolator(TimeInterpolator)} 方
  * 法设置动画的持续时间与插值器。
  * <p>
+ * 除了滚动到目标位置时自动触发的背景闪动动画外，也可以调用 {@link #highlight(int...)} 方法或者
+ * {@link #highlightRange(int, int)} 方法同时对多个列表项做背景闪动动画（例如：所有的搜索结果，或者新插入
+ * 的列表项）。所有正在进行的背景闪动动画共用同一个动画时钟，每一帧只会触发一次重绘。
+ * <p>
+ * 当列表很长时，平滑滚动到一个很远的位置需要绑定大量的中间列表项，非常耗时。此时可以调用
+ * {@link #setFastSeekWindow(int)} 方法开启快速定位：如果目标位置与当前可见区域的距离超过了该窗口大小，
+ * 则会先直接跳转到距离目标位置一个窗口大小的位置处，然后再平滑滚动剩下的距离。
+ * <p>
+ * 如果只知道列表项的 key（例如消息 ID），可以先调用 {@link #setKeyIndex(Executor, KeyIndex)} 方法设置一个
+ * key 索引（例如 {@link KeyPositionIndex}），然后调用 {@link #scrollToKey(long)} 方法或者
+ * {@link #smoothScrollToKey(long)} 方法。key 对应的位置会在后台线程中查找，找到后才会在主线程中滚动并做
+ * 背景闪动动画。
+ * <p>
+ * 调用 {@link #scrollToPositionWithOffset(int, int)} 方法或者 {@link #scrollToPositionCentered(int)} 方法
+ * 可以将目标列表项对齐到指定的偏移量处或者 RecyclerView 的中央。这两个方法会在跳转前预热 RecycledViewPool：
+ * 如果落点区域需要的某种类型的 ViewHolder 不足，则会分多帧预先创建这些 ViewHolder，避免跳转后的第一帧集
+ * 中创建大量的 ViewHolder 导致卡顿。
+ * <p>
  * <b>使用步骤：</b>
  * <p>
  * <ol>
@@ -69,19 +100,54 @@ import androidx.recyclerview.widget.RecyclerView;
 @RequiresApi(api = Build.VERSION_CODES.JELLY_BEAN)
 public class ScrollToPositionHelper {
     private static final int DEFAULT_DURATION = 300;
+    // 覆盖层的最大不透明度相对于背景闪动颜色的不透明度的比例
+    private static final float HIGHLIGHT_ALPHA_FRACTION = 0.4F;
     private static final int NO_POSITION = -1;
+    private static final int INITIAL_HIGHLIGHT_CAPACITY = 8;
+    private static final int MAX_KEY_LOOKUP_ATTEMPTS = 3;
+    // 预热 RecycledViewPool 时每一帧最多占用的时间
+    private static final long WARM_UP_FRAME_BUDGET_NANOS = 4000000L;
 
     private RecyclerView mRecyclerView;
     private int mDuration;
 
     private int mPosition;
 
-    private ColorDrawable mColorDrawable;
+    private int mFastSeekWindow;
+    private int mFastSeekPosition;
+    private Runnable mFastSeekTask;
+
+    // 等待预热完成后再跳转的目标位置与偏移量
+    private int mLandingPosition;
+    private int mLandingOffset;
+    private boolean mLandingCentered;
+    private SparseIntArray mWarmUpDeficits;
+    private Runnable mWarmUpTask;
+
+    // 等待跳转的布局完成后再修正居中误差的目标位置
+    private int mCenterPosition;
+    private Runnable mCenterCorrectionTask;
+
+    private Executor mKeyLookupExecutor;
+    private KeyIndex mKeyIndex;
+    private Handler mMainHandler;
+    // 每次发起新的滚动请求时都会增加，用于丢弃已过期的 key 查找结果
+    private int mKeyLookupGeneration;
 
-    private ValueAnimator mAnimator;
+    private Paint mHighlightPaint;
+    private int mHighlightAlpha;
+    private Rect mHighlightBounds;
 
-    private View mTargetView;
-    private Drawable mTargetViewBackground;
+    private TimeInterpolator mInterpolator;
+
+    // 所有正在进行的背景闪动动画共用同一个 ValueAnimator 作为动画时钟
+    private ValueAnimator mClock;
+
+    // 正在进行背景闪动动画的位置区间（起始位置与列表项数量）及动画的开始时间
+    private int[] mHighlightStarts;
+    private int[] mHighlightCounts;
+    private long[] mHighlightStartTimes;
+    private int mHighlightCount;
 
     // 由于调用 scrollToPosition 方法时只会触发 RecyclerView.OnScrollListener 的 onScrolled 方法，而
     // 不会触发 onScrollStateChanged 方法，由于任何滚动事件都会触发 onScrolled 方法，因此需要在
@@ -101,7 +167,7 @@ public class ScrollToPositionHelper {
      * 创建一个 ScrollToPositionHelper 对象。
      *
      * @param recyclerView   RecyclerView 对象，不能为 null。
-     * @param highlightColor 背景闪动颜色。
+     * @param highlightColor 背景闪动颜色。覆盖层的最大不透明度为该颜色的不透明度的 40%。
      */
     public ScrollToPositionHelper(@NonNull RecyclerView recyclerView, @ColorInt int highlightColor) {
         this(recyclerView, highlightColor, DEFAULT_DURATION);
@@ -111,7 +177,7 @@ public class ScrollToPositionHelper {
      * 创建一个 ScrollToPositionHelper 对象。
      *
      * @param recyclerView   RecyclerView 对象，不能为 null。
-     * @param highlightColor 背景闪动颜色。
+     * @param highlightColor 背景闪动颜色。覆盖层的最大不透明度为该颜色的不透明度的 40%。
      * @param duration       背景闪动动画的持续时间，单位：毫秒。小于 0 时默认为 0。
      */
     public ScrollToPositionHelper(@NonNull RecyclerView recyclerView, @ColorInt int highlightColor, int duration) {
@@ -122,15 +188,63 @@ public class ScrollToPositionHelper {
 
         mRecyclerView = recyclerView;
         mDuration = duration;
-        mColorDrawable = new ColorDrawable(highlightColor);
-        mColorDrawable.setAlpha(0);
+        mHighlightPaint = new Paint();
+        mHighlightPaint.setColor(highlightColor);
+        mHighlightAlpha = Math.round(Color.alpha(highlightColor) * HIGHLIGHT_ALPHA_FRACTION);
+        mHighlightBounds = new Rect();
         mPosition = NO_POSITION;
+        mFastSeekPosition = NO_POSITION;
+        mLandingPosition = NO_POSITION;
+        mCenterPosition = NO_POSITION;
+        mWarmUpDeficits = new SparseIntArray();
+        mInterpolator = new LinearInterpolator();
+
+        mHighlightStarts = new int[INITIAL_HIGHLIGHT_CAPACITY];
+        mHighlightCounts = new int[INITIAL_HIGHLIGHT_CAPACITY];
+        mHighlightStartTimes = new long[INITIAL_HIGHLIGHT_CAPACITY];
 
-        initAnimator();
+        initClock();
+
+        mFastSeekTask = new Runnable() {
+            @Override
+            public void run() {
+                int position = mFastSeekPosition;
+                mFastSeekPosition = NO_POSITION;
+                if (position != NO_POSITION) {
+                    smoothScrollToPositionInternal(position);
+                }
+            }
+        };
+
+        mWarmUpTask = new Runnable() {
+            @Override
+            public void run() {
+                continueWarmUp();
+            }
+        };
+
+        mCenterCorrectionTask = new Runnable() {
+            @Override
+            public void run() {
+                correctCenter();
+            }
+        };
+
+        mRecyclerView.addItemDecoration(new RecyclerView.ItemDecoration() {
+            @Override
+            public void onDrawOver(@NonNull Canvas c, @NonNull RecyclerView parent, @NonNull RecyclerView.State state) {
+                drawHighlight(c, parent);
+            }
+        });
 
         mRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
             @Override
             public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+                if (newState != RecyclerView.SCROLL_STATE_IDLE) {
+                    // 用户或其他代码开始滚动，放弃修正居中误差
+                    mCenterPosition = NO_POSITION;
+                }
+
                 if (mPosition == NO_POSITION || newState != RecyclerView.SCROLL_STATE_IDLE) {
                     return;
                 }
@@ -140,6 +254,18 @@ public class ScrollToPositionHelper {
 
             @Override
             public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (mFastSeekPosition != NO_POSITION) {
+                    // 快速定位的跳转已完成布局，在下一个消息中开始平滑滚动剩下的距离
+                    mRecyclerView.removeCallbacks(mFastSeekTask);
+                    mRecyclerView.post(mFastSeekTask);
+                    return;
+                }
+
+                if (mCenterPosition != NO_POSITION) {
+                    mRecyclerView.removeCallbacks(mCenterCorrectionTask);
+                    mRecyclerView.post(mCenterCorrectionTask);
+                }
+
                 if (mExecutedScrollToPosition) {
                     mExecutedScrollToPosition = false;
                     startBackgroundAnim();
@@ -159,7 +285,6 @@ public class ScrollToPositionHelper {
         }
 
         mDuration = duration;
-        mAnimator.setDuration(mDuration);
     }
 
     /**
@@ -169,10 +294,134 @@ public class ScrollToPositionHelper {
      */
     public void setAnimInterpolator(@NonNull TimeInterpolator interpolator) {
         NonNullUtil.requireNonNull(interpolator);
-        mAnimator.setInterpolator(interpolator);
+        mInterpolator = interpolator;
+    }
+
+    /**
+     * 设置快速定位的窗口大小（默认为 0，即不开启快速定位）。
+     * <p>
+     * 开启快速定位后，调用 {@link #smoothScrollToPosition(int)} 方法时，如果目标位置与当前可见区域之间的列
+     * 表项数量超过了 window，则会先直接跳转到距离目标位置 window 个列表项的位置处，然后再平滑滚动到目标位
+     * 置，从而避免绑定大量的中间列表项。滚动到目标位置后依然会对目标列表项做背景闪动动画。
+     * <p>
+     * 支持 LinearLayoutManager 与 GridLayoutManager（包括其他使用 RecyclerView#scrollToPosition
+     * 定位的 LayoutManager）。
+     *
+     * @param window 快速定位的窗口大小（列表项的数量），小于等于 0 时表示关闭快速定位。对于
+     *               GridLayoutManager，建议设置为 spanCount 的整数倍。
+     */
+    public void setFastSeekWindow(int window) {
+        mFastSeekWindow = Math.max(window, 0);
+    }
+
+    /**
+     * 获取快速定位的窗口大小。
+     *
+     * @return 快速定位的窗口大小，返回 0 表示没有开启快速定位。
+     */
+    public int getFastSeekWindow() {
+        return mFastSeekWindow;
+    }
+
+    /**
+     * 设置用于 {@link #scrollToKey(long)} 与 {@link #smoothScrollToKey(long)} 方法的 key 索引。
+     *
+     * @param executor 用于执行 {@link KeyIndex#positionOf(long)} 方法的 Executor，不应是主线程的
+     *                 Executor，不能为 null。
+     * @param keyIndex key 索引，不能为 null。
+     * @see KeyPositionIndex
+     */
+    public void setKeyIndex(@NonNull Executor executor, @NonNull KeyIndex keyIndex) {
+        NonNullUtil.requireNonNull(executor);
+        NonNullUtil.requireNonNull(keyIndex);
+
+        if (mMainHandler == null) {
+            mMainHandler = new Handler(Looper.getMainLooper());
+        }
+
+        mKeyLookupExecutor = executor;
+        mKeyIndex = keyIndex;
+        mKeyLookupGeneration++;
+    }
+
+    /**
+     * 滚动到 key 对应的列表项处，并对该列表项做背景闪动动画。
+     * <p>
+     * key 对应的位置会在后台线程中查找，找到后才会在主线程中滚动。如果在找到之前又发起了新的滚动请求，则本
+     * 次请求会被丢弃。查找结果过期或者找不到 key 对应的列表项时会重新查找，最多查找 3 次，仍然找不到则什么
+     * 也不做。
+     *
+     * @param key 列表项的 key。
+     * @throws IllegalStateException 如果没有调用 {@link #setKeyIndex(Executor, KeyIndex)} 方法设置 key 索引。
+     */
+    public void scrollToKey(long key) throws IllegalStateException {
+        lookupKey(key, false);
+    }
+
+    /**
+     * 平滑滚动到 key 对应的列表项处，并对该列表项做背景闪动动画。
+     *
+     * @param key 列表项的 key。
+     * @throws IllegalStateException 如果没有调用 {@link #setKeyIndex(Executor, KeyIndex)} 方法设置 key 索引。
+     * @see #scrollToKey(long)
+     */
+    public void smoothScrollToKey(long key) throws IllegalStateException {
+        lookupKey(key, true);
+    }
+
+    /**
+     * 同时对多个位置处的列表项做背景闪动动画。
+     * <p>
+     * 不会滚动 RecyclerView。如果某个位置处的列表项当前不可见，则当它在动画期间滚动到可见区域时才会显示背
+     * 景闪动动画。如果某个位置已经在做背景闪动动画，则会重新开始该位置的动画。小于 0 的位置会被忽略。
+     *
+     * @param positions 要做背景闪动动画的列表项的位置，不能为 null。
+     */
+    public void highlight(@NonNull int... positions) {
+        NonNullUtil.requireNonNull(positions);
+
+        long now = AnimationUtils.currentAnimationTimeMillis();
+        for (int position : positions) {
+            if (position >= 0) {
+                addHighlight(position, 1, now);
+            }
+        }
+
+        startClock();
+    }
+
+    /**
+     * 对 [positionStart, positionStart + itemCount) 区间内的所有列表项做背景闪动动画。
+     * <p>
+     * 无论区间有多大，都只会占用一个动画槽位。
+     *
+     * @param positionStart 区间的起始位置，小于 0 时会被忽略。
+     * @param itemCount     区间内列表项的数量，小于等于 0 时会被忽略。
+     */
+    public void highlightRange(int positionStart, int itemCount) {
+        if (positionStart < 0 || itemCount <= 0) {
+            return;
+        }
+
+        addHighlight(positionStart, itemCount, AnimationUtils.currentAnimationTimeMillis());
+        startClock();
+    }
+
+    /**
+     * 立即结束所有正在进行的背景闪动动画。
+     */
+    public void clearHighlights() {
+        mHighlightCount = 0;
+        if (mClock.isRunning()) {
+            mClock.cancel();
+        }
+        mRecyclerView.invalidate();
     }
 
     public void scrollToPosition(int position) {
+        mKeyLookupGeneration++;
+        cancelPendingScroll();
+
         mPosition = position;
         mExecutedScrollToPosition = true;
 
@@ -184,7 +433,54 @@ public class ScrollToPositionHelper {
         mRecyclerView.scrollToPosition(position);
     }
 
+    /**
+     * 滚动到指定位置，并将该位置处的列表项对齐到距离 RecyclerView 起始边缘（考虑 padding）offset 像素的位置
+     * 处，然后对该列表项做背景闪动动画。
+     * <p>
+     * 跳转前会预热落点区域需要的 ViewHolder，见 {@link ScrollToPositionHelper} 的类文档。只有
+     * LinearLayoutManager（包括 GridLayoutManager）与 StaggeredGridLayoutManager 支持偏移量，其他
+     * LayoutManager 会忽略 offset。
+     *
+     * @param position 目标位置。
+     * @param offset   目标列表项的起始边缘与 RecyclerView 的起始边缘之间的距离，单位：像素。
+     */
+    public void scrollToPositionWithOffset(int position, int offset) {
+        startLanding(position, offset, false);
+    }
+
+    /**
+     * 滚动到指定位置，并将该位置处的列表项对齐到 RecyclerView 的中央，然后对该列表项做背景闪动动画。
+     * <p>
+     * 如果目标列表项在跳转前不可见，则会先根据相同类型的可见列表项估算其尺寸，跳转的布局完成后再修正误差。
+     *
+     * @param position 目标位置。
+     * @see #scrollToPositionWithOffset(int, int)
+     */
+    public void scrollToPositionCentered(int position) {
+        startLanding(position, 0, true);
+    }
+
     public void smoothScrollToPosition(int position) {
+        mKeyLookupGeneration++;
+        cancelPendingScroll();
+
+        int jumpPosition = findFastSeekJumpPosition(position);
+        if (jumpPosition == NO_POSITION) {
+            smoothScrollToPositionInternal(position);
+            return;
+        }
+
+        // 先直接跳转到目标位置附近，等待跳转的布局完成（onScrolled 被调用）后再平滑滚动剩下的距离。跳转期
+        // 间不记录目标位置，避免跳转导致的滚动状态变化提前触发背景闪动动画。
+        mPosition = NO_POSITION;
+        mExecutedScrollToPosition = false;
+        mFastSeekPosition = position;
+        mRecyclerView.scrollToPosition(jumpPosition);
+    }
+
+    // ***************************************private************************************
+
+    private void smoothScrollToPositionInternal(int position) {
         mExecutedScrollToPosition = false;
 
         mPosition = position;
@@ -195,48 +491,411 @@ public class ScrollToPositionHelper {
         mRecyclerView.smoothScrollToPosition(position);
     }
 
-    // ***************************************private************************************
+    private void lookupKey(long key, boolean smooth) throws IllegalStateException {
+        if (mKeyIndex == null) {
+            throw new IllegalStateException("key index not set.");
+        }
+
+        mKeyLookupGeneration++;
+        mKeyLookupExecutor.execute(new KeyLookupTask(mKeyIndex, key, smooth, mKeyLookupGeneration, 1));
+    }
+
+    private void cancelPendingScroll() {
+        if (mFastSeekPosition != NO_POSITION) {
+            mFastSeekPosition = NO_POSITION;
+            mRecyclerView.removeCallbacks(mFastSeekTask);
+        }
+
+        if (mLandingPosition != NO_POSITION) {
+            mLandingPosition = NO_POSITION;
+            mRecyclerView.removeCallbacks(mWarmUpTask);
+        }
+
+        if (mCenterPosition != NO_POSITION) {
+            mCenterPosition = NO_POSITION;
+            mRecyclerView.removeCallbacks(mCenterCorrectionTask);
+        }
+    }
+
+    private void startLanding(int position, int offset, boolean centered) {
+        mKeyLookupGeneration++;
+        cancelPendingScroll();
+
+        mLandingPosition = position;
+        mLandingOffset = offset;
+        mLandingCentered = centered;
+
+        if (computeWarmUpDeficits() == 0) {
+            land();
+            return;
+        }
+
+        continueWarmUp();
+    }
+
+    /**
+     * 估算落点区域需要的各类型 ViewHolder 的数量，减去可以复用的数量（当前可见的与 RecycledViewPool 中
+     * 的），结果保存在 mWarmUpDeficits 中。
+     *
+     * @return 需要预先创建的 ViewHolder 的总数。
+     */
+    private int computeWarmUpDeficits() {
+        mWarmUpDeficits.clear();
+
+        RecyclerView.Adapter<?> adapter = mRecyclerView.getAdapter();
+        RecyclerView.LayoutManager layoutManager = mRecyclerView.getLayoutManager();
+        int childCount = mRecyclerView.getChildCount();
+        if (adapter == null || layoutManager == null || childCount == 0) {
+            return 0;
+        }
+
+        int itemCount = adapter.getItemCount();
+        if (mLandingPosition < 0 || mLandingPosition >= itemCount) {
+            return 0;
+        }
+
+        // 以当前可见的列表项数量作为落点区域的大小，并根据偏移量估算目标位置之前的列表项数量
+        boolean vertical = layoutManager.canScrollVertically();
+        int totalExtent = 0;
+        for (int i = 0; i < childCount; i++) {
+            View child = mRecyclerView.getChildAt(i);
+            totalExtent += vertical ? child.getHeight() : child.getWidth();
+            int viewType = mRecyclerView.getChildViewHolder(child).getItemViewType();
+            mWarmUpDeficits.put(viewType, mWarmUpDeficits.get(viewType, 0) - 1);
+        }
+
+        int before;
+        if (mLandingCentered) {
+            before = childCount / 2;
+        } else {
+            int averageExtent = totalExtent / childCount;
+            before = averageExtent > 0 ? mLandingOffset / averageExtent + 1 : 0;
+            before = Math.max(0, Math.min(before, childCount));
+        }
+
+        int start = Math.max(0, mLandingPosition - before);
+        int end = Math.min(itemCount, start + childCount + 1);
+        for (int i = start; i < end; i++) {
+            int viewType = adapter.getItemViewType(i);
+            mWarmUpDeficits.put(viewType, mWarmUpDeficits.get(viewType, 0) + 1);
+        }
+
+        RecyclerView.RecycledViewPool pool = mRecyclerView.getRecycledViewPool();
+        int total = 0;
+        for (int i = 0; i < mWarmUpDeficits.size(); i++) {
+            int deficit = mWarmUpDeficits.valueAt(i) - pool.getRecycledViewCount(mWarmUpDeficits.keyAt(i));
+            deficit = Math.max(deficit, 0);
+            mWarmUpDeficits.put(mWarmUpDeficits.keyAt(i), deficit);
+            total += deficit;
+        }
+
+        return total;
+    }
 
-    private void initAnimator() {
-        mAnimator = ValueAnimator.ofInt(0, 255);
-        mAnimator.setDuration(mDuration);
-        mAnimator.setInterpolator(new LinearInterpolator());
-        mAnimator.setRepeatCount(1);
-        mAnimator.setRepeatMode(ValueAnimator.REVERSE);
-        mAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+    private void continueWarmUp() {
+        if (mLandingPosition == NO_POSITION) {
+            return;
+        }
+
+        RecyclerView.Adapter<?> adapter = mRecyclerView.getAdapter();
+        if (adapter == null) {
+            land();
+            return;
+        }
+
+        RecyclerView.RecycledViewPool pool = mRecyclerView.getRecycledViewPool();
+        long startTime = System.nanoTime();
+        boolean remaining = false;
+
+        for (int i = 0; i < mWarmUpDeficits.size(); i++) {
+            int viewType = mWarmUpDeficits.keyAt(i);
+            int deficit = mWarmUpDeficits.valueAt(i);
+
+            while (deficit > 0) {
+                if (System.nanoTime() - startTime > WARM_UP_FRAME_BUDGET_NANOS) {
+                    remaining = true;
+                    break;
+                }
+
+                int count = pool.getRecycledViewCount(viewType);
+                pool.putRecycledView(adapter.createViewHolder(mRecyclerView, viewType));
+
+                // RecycledViewPool 中该类型的 ViewHolder 已达到上限，继续创建只会被丢弃
+                deficit = pool.getRecycledViewCount(viewType) > count ? deficit - 1 : 0;
+            }
+
+            mWarmUpDeficits.put(viewType, deficit);
+            if (remaining) {
+                break;
+            }
+        }
+
+        if (remaining) {
+            ViewCompat.postOnAnimation(mRecyclerView, mWarmUpTask);
+            return;
+        }
+
+        land();
+    }
+
+    private void land() {
+        int position = mLandingPosition;
+        int offset = mLandingOffset;
+        boolean centered = mLandingCentered;
+        mLandingPosition = NO_POSITION;
+
+        // 需要在记录目标位置之前停止滚动，避免滚动状态的改变提前触发背景闪动动画
+        mRecyclerView.stopScroll();
+
+        RecyclerView.LayoutManager layoutManager = mRecyclerView.getLayoutManager();
+        if (centered && layoutManager != null) {
+            offset = estimateCenterOffset(layoutManager, position);
+            mCenterPosition = position;
+        }
+
+        mPosition = position;
+        mExecutedScrollToPosition = true;
+
+        if (isViewHolderVisible()) {
+            mExecutedScrollToPosition = false;
+            startBackgroundAnim();
+        }
+
+        if (layoutManager instanceof LinearLayoutManager) {
+            ((LinearLayoutManager) layoutManager).scrollToPositionWithOffset(position, offset);
+        } else if (layoutManager instanceof StaggeredGridLayoutManager) {
+            ((StaggeredGridLayoutManager) layoutManager).scrollToPositionWithOffset(position, offset);
+        } else {
+            mRecyclerView.scrollToPosition(position);
+        }
+    }
+
+    private int estimateCenterOffset(RecyclerView.LayoutManager layoutManager, int position) {
+        boolean vertical = layoutManager.canScrollVertically();
+        int extent = vertical
+                ? mRecyclerView.getHeight() - mRecyclerView.getPaddingTop() - mRecyclerView.getPaddingBottom()
+                : mRecyclerView.getWidth() - mRecyclerView.getPaddingLeft() - mRecyclerView.getPaddingRight();
+
+        // 优先使用目标列表项自身的尺寸，不可见时使用相同类型的可见列表项的尺寸估算
+        View target = null;
+        RecyclerView.ViewHolder holder = mRecyclerView.findViewHolderForAdapterPosition(position);
+        if (holder != null) {
+            target = holder.itemView;
+        } else {
+            RecyclerView.Adapter<?> adapter = mRecyclerView.getAdapter();
+            int viewType = adapter == null ? 0 : adapter.getItemViewType(position);
+            for (int i = 0, count = mRecyclerView.getChildCount(); i < count; i++) {
+                View child = mRecyclerView.getChildAt(i);
+                if (mRecyclerView.getChildViewHolder(child).getItemViewType() == viewType) {
+                    target = child;
+                    break;
+                }
+            }
+        }
+
+        int itemExtent = target == null ? 0 : (vertical ? target.getHeight() : target.getWidth());
+        return (extent - itemExtent) / 2;
+    }
+
+    private void correctCenter() {
+        int position = mCenterPosition;
+        mCenterPosition = NO_POSITION;
+
+        RecyclerView.LayoutManager layoutManager = mRecyclerView.getLayoutManager();
+        if (position == NO_POSITION || layoutManager == null) {
+            return;
+        }
+
+        View target = layoutManager.findViewByPosition(position);
+        if (target == null) {
+            return;
+        }
+
+        if (layoutManager.canScrollVertically()) {
+            int center = (mRecyclerView.getPaddingTop() + mRecyclerView.getHeight() - mRecyclerView.getPaddingBottom()) / 2;
+            mRecyclerView.scrollBy(0, (target.getTop() + target.getBottom()) / 2 - center);
+        } else {
+            int center = (mRecyclerView.getPaddingLeft() + mRecyclerView.getWidth() - mRecyclerView.getPaddingRight()) / 2;
+            mRecyclerView.scrollBy((target.getLeft() + target.getRight()) / 2 - center, 0);
+        }
+    }
+
+    /**
+     * 如果需要快速定位，则返回需要直接跳转到的位置，否则返回 NO_POSITION。
+     */
+    private int findFastSeekJumpPosition(int position) {
+        RecyclerView.Adapter adapter = mRecyclerView.getAdapter();
+        if (mFastSeekWindow <= 0 || adapter == null || position < 0 || position >= adapter.getItemCount()) {
+            return NO_POSITION;
+        }
+
+        int firstVisible = NO_POSITION;
+        int lastVisible = NO_POSITION;
+        for (int i = 0, count = mRecyclerView.getChildCount(); i < count; i++) {
+            int childPosition = mRecyclerView.getChildAdapterPosition(mRecyclerView.getChildAt(i));
+            if (childPosition == NO_POSITION) {
+                continue;
+            }
+
+            if (firstVisible == NO_POSITION || childPosition < firstVisible) {
+                firstVisible = childPosition;
+            }
+            if (childPosition > lastVisible) {
+                lastVisible = childPosition;
+            }
+        }
+
+        if (firstVisible == NO_POSITION) {
+            return NO_POSITION;
+        }
+
+        // LinearLayoutManager（包括 GridLayoutManager）在跳转到可见区域之外的位置时，会将该位置对齐到滚
+        // 动方向的末端，因此跳转后目标位置与可见区域的距离约为一个窗口大小。
+        if (position > lastVisible + mFastSeekWindow) {
+            return position - mFastSeekWindow;
+        }
+
+        if (position < firstVisible - mFastSeekWindow) {
+            return position + mFastSeekWindow;
+        }
+
+        return NO_POSITION;
+    }
+
+    private void initClock() {
+        // 动画时钟只负责驱动重绘，每个位置的动画进度由其开始时间计算得出
+        mClock = ValueAnimator.ofInt(0, 1);
+        mClock.setDuration(DEFAULT_DURATION);
+        mClock.setRepeatCount(ValueAnimator.INFINITE);
+        mClock.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
             @Override
             public void onAnimationUpdate(ValueAnimator animation) {
-                int currentValue = (int) animation.getAnimatedValue();
+                removeExpiredHighlights(AnimationUtils.currentAnimationTimeMillis());
+                if (mHighlightCount == 0) {
+                    mClock.cancel();
+                }
 
-                mColorDrawable.setAlpha(currentValue);
-                mColorDrawable.invalidateSelf();
+                mRecyclerView.invalidate();
             }
         });
-        mAnimator.addListener(new AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationCancel(Animator animation) {
-                onAnimationEnd(animation);
+    }
+
+    private void startClock() {
+        if (mHighlightCount == 0) {
+            return;
+        }
+
+        if (!mClock.isRunning()) {
+            mClock.start();
+        }
+
+        mRecyclerView.invalidate();
+    }
+
+    private void addHighlight(int positionStart, int itemCount, long startTime) {
+        if (mDuration == 0) {
+            return;
+        }
+
+        for (int i = 0; i < mHighlightCount; i++) {
+            if (mHighlightStarts[i] == positionStart && mHighlightCounts[i] == itemCount) {
+                mHighlightStartTimes[i] = startTime;
+                return;
             }
+        }
 
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                restoreTargetViewBackground();
-                mTargetView = null;
+        if (mHighlightCount == mHighlightStarts.length) {
+            int capacity = mHighlightCount * 2;
+            mHighlightStarts = Arrays.copyOf(mHighlightStarts, capacity);
+            mHighlightCounts = Arrays.copyOf(mHighlightCounts, capacity);
+            mHighlightStartTimes = Arrays.copyOf(mHighlightStartTimes, capacity);
+        }
+
+        mHighlightStarts[mHighlightCount] = positionStart;
+        mHighlightCounts[mHighlightCount] = itemCount;
+        mHighlightStartTimes[mHighlightCount] = startTime;
+        mHighlightCount++;
+    }
+
+    private void removeExpiredHighlights(long now) {
+        // 背景闪动动画会先正向播放，然后再反向播放一次，因此总时长是 mDuration 的 2 倍
+        long totalDuration = mDuration * 2L;
+        int count = 0;
+        for (int i = 0; i < mHighlightCount; i++) {
+            if (now - mHighlightStartTimes[i] >= totalDuration) {
+                continue;
             }
-        });
+
+            mHighlightStarts[count] = mHighlightStarts[i];
+            mHighlightCounts[count] = mHighlightCounts[i];
+            mHighlightStartTimes[count] = mHighlightStartTimes[i];
+            count++;
+        }
+        mHighlightCount = count;
     }
 
-    private void initTargetViewDrawable() {
-        mTargetViewBackground = mTargetView.getBackground();
+    private int findHighlight(int position) {
+        // 从后往前查找，当多个区间重叠时最近开始的动画优先
+        for (int i = mHighlightCount - 1; i >= 0; i--) {
+            int start = mHighlightStarts[i];
+            if (position >= start && position - start < mHighlightCounts[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
 
+    private int computeHighlightAlpha(long elapsed) {
+        if (mDuration == 0 || elapsed < 0) {
+            return 0;
+        }
+
+        float fraction = elapsed / (float) mDuration;
+        if (fraction >= 2) {
+            return 0;
+        }
+
+        if (fraction > 1) {
+            fraction = 2 - fraction;
+        }
+
+        return (int) (mHighlightAlpha * mInterpolator.getInterpolation(fraction));
+    }
 
-        if (mTargetViewBackground == null) {
-            mTargetView.setBackground(mColorDrawable);
+    private void drawHighlight(Canvas canvas, RecyclerView parent) {
+        if (mHighlightCount == 0) {
             return;
         }
 
-        LayerDrawable layerDrawable = new LayerDrawable(new Drawable[]{mTargetViewBackground, mColorDrawable});
-        mTargetView.setBackground(layerDrawable);
+        long now = AnimationUtils.currentAnimationTimeMillis();
+        for (int i = 0, count = parent.getChildCount(); i < count; i++) {
+            View child = parent.getChildAt(i);
+            int position = parent.getChildAdapterPosition(child);
+            if (position == NO_POSITION) {
+                continue;
+            }
+
+            int index = findHighlight(position);
+            if (index == -1) {
+                continue;
+            }
+
+            int alpha = computeHighlightAlpha(now - mHighlightStartTimes[index]);
+            if (alpha <= 0) {
+                continue;
+            }
+
+            int dx = Math.round(child.getTranslationX());
+            int dy = Math.round(child.getTranslationY());
+            mHighlightBounds.set(child.getLeft() + dx, child.getTop() + dy,
+                    child.getRight() + dx, child.getBottom() + dy);
+            mHighlightPaint.setAlpha(Math.min(alpha, 255));
+            // 覆盖层只绘制在列表项的范围内，不会影响相邻的列表项与 ItemDecoration
+            int saveCount = canvas.save();
+            canvas.clipRect(mHighlightBounds);
+            canvas.drawPaint(mHighlightPaint);
+            canvas.restoreToCount(saveCount);
+        }
     }
 
     private void startBackgroundAnim() {
@@ -244,32 +903,115 @@ public class ScrollToPositionHelper {
             return;
         }
 
-        if (mAnimator.isRunning()) {
-            mAnimator.cancel();
-        }
-
         RecyclerView.ViewHolder holder = mRecyclerView.findViewHolderForAdapterPosition(mPosition);
+        int position = mPosition;
         mPosition = NO_POSITION;
 
         if (holder == null) {
             return;
         }
 
-        mTargetView = holder.itemView;
+        addHighlight(position, 1, AnimationUtils.currentAnimationTimeMillis());
+        startClock();
+    }
 
-        initTargetViewDrawable();
-        mAnimator.start();
+    private boolean isViewHolderVisible() {
+        return mRecyclerView.findViewHolderForAdapterPosition(mPosition) != null;
     }
 
-    private void restoreTargetViewBackground() {
-        if (mTargetView == null) {
-            return;
+    private final class KeyLookupTask implements Runnable {
+        private final KeyIndex mIndex;
+        private final long mKey;
+        private final boolean mSmooth;
+        private final int mGeneration;
+        private final int mAttempt;
+
+        KeyLookupTask(KeyIndex index, long key, boolean smooth, int generation, int attempt) {
+            mIndex = index;
+            mKey = key;
+            mSmooth = smooth;
+            mGeneration = generation;
+            mAttempt = attempt;
+        }
+
+        @Override
+        public void run() {
+            final int position = mIndex.positionOf(mKey);
+
+            mMainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    deliverPosition(position);
+                }
+            });
+        }
+
+        private void deliverPosition(int position) {
+            // 已发起新的滚动请求或 key 索引已被替换
+            if (mGeneration != mKeyLookupGeneration || mIndex != mKeyIndex) {
+                return;
+            }
+
+            RecyclerView.Adapter<?> adapter = mRecyclerView.getAdapter();
+            if (adapter == null) {
+                return;
+            }
+
+            // 查找期间数据可能发生了改变，或者索引尚未读取新插入的列表项的 key（找不到），只需确认一个列表项
+            // 的 key 即可判断查找结果是否过期
+            if (position < 0 || position >= adapter.getItemCount() || mIndex.getKey(position) != mKey) {
+                retry();
+                return;
+            }
+
+            if (mSmooth) {
+                smoothScrollToPosition(position);
+            } else {
+                scrollToPosition(position);
+            }
         }
 
-        mTargetView.setBackground(mTargetViewBackground);
+        private void retry() {
+            if (mAttempt >= MAX_KEY_LOOKUP_ATTEMPTS) {
+                return;
+            }
+
+            // 先回到主线程的消息队列末尾，让索引处理完已排队的更新（例如 KeyPositionIndex 读取脏位置的
+            // key）之后再重新查找
+            mMainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    if (mGeneration == mKeyLookupGeneration && mIndex == mKeyIndex) {
+                        mKeyLookupExecutor.execute(new KeyLookupTask(mIndex, mKey, mSmooth, mGeneration, mAttempt + 1));
+                    }
+                }
+            });
+        }
     }
 
-    private boolean isViewHolderVisible() {
-        return mRecyclerView.findViewHolderForAdapterPosition(mPosition) != null;
+    /**
+     * key 索引，用于根据列表项的 key 查找列表项的当前位置。
+     *
+     * @see KeyPositionIndex
+     */
+    public interface KeyIndex extends SelectableHelper.KeyProvider {
+        /**
+         * 查找 key 对应的列表项的当前位置。
+         * <p>
+         * 该方法会在 {@link ScrollToPositionHelper#setKeyIndex(Executor, KeyIndex)} 方法设置的 Executor 中调用，
+         * 实现类需要保证线程安全。
+         *
+         * @param key 列表项的 key。
+         * @return key 对应的列表项的位置，找不到时返回 -1。
+         */
+        int positionOf(long key);
+
+        /**
+         * 获取 position 处的列表项的 key。
+         * <p>
+         * 该方法只会在主线程中调用，用于确认 {@link #positionOf(long)} 方法的查找结果没有过期。
+         */
+        @Override
+        long getKey(int position);
     }
 }
@@ -23,7 +23,10 @@
  */
 package recyclerview.helper;
 
+import android.os.Bundle;
+
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.List;
@@ -65,8 +68,33 @@ public abstract class SelectableAdapter<Holder extends RecyclerView.ViewHolder &
     @Override
     public void onBindViewHolder(@NonNull Holder holder, int position) {
         mSelectableHelper.updateSelectState(holder, position);
-        mItemClickHelper.bindClickListener(holder.itemView);
-        mItemClickHelper.bindLongClickListener(holder.itemView);
+        mItemClickHelper.bindViewHolder(holder);
+    }
+
+    /**
+     * 如果本次绑定只是由选中状态改变引起的，则只会调用 {@link #onSelectionChanged(RecyclerView.ViewHolder, int)}
+     * 方法，而不会调用 onBindViewHolder(holder, position) 方法重新绑定整个列表项。
+     */
+    @Override
+    public void onBindViewHolder(@NonNull Holder holder, int position, @NonNull List<Object> payloads) {
+        if (SelectableHelper.isSelectStatePayload(payloads)) {
+            onSelectionChanged(holder, position);
+            return;
+        }
+
+        super.onBindViewHolder(holder, position, payloads);
+    }
+
+    /**
+     * 当列表项的选中状态发生改变，且该列表项需要重新绑定时调用该方法。
+     * <p>
+     * 默认只会更新列表项的选中状态，可以覆盖该方法来实现一个轻量的绑定过程。
+     *
+     * @param holder   列表项的 ViewHolder。
+     * @param position 列表项的位置。
+     */
+    protected void onSelectionChanged(@NonNull Holder holder, int position) {
+        mSelectableHelper.updateSelectState(holder, position);
     }
 
     /**
@@ -78,6 +106,26 @@ public abstract class SelectableAdapter<Holder extends RecyclerView.ViewHolder &
         mSelectableHelper.setSelectMode(mode);
     }
 
+    /**
+     * 设置列表项的 key 提供者，设置后将使用列表项的 key 来保存选中状态。
+     *
+     * @param keyProvider key 提供者，可为 null。为 null 时将切换回按位置保存选中状态的模式。
+     * @see SelectableHelper#setKeyProvider(SelectableHelper.KeyProvider)
+     */
+    public void setKeyProvider(SelectableHelper.KeyProvider keyProvider) {
+        mSelectableHelper.setKeyProvider(keyProvider);
+    }
+
+    /**
+     * 使用 stable id 作为列表项的 key。调用该方法前需要先调用 setHasStableIds(true) 方法。
+     *
+     * @throws IllegalStateException 如果没有启用 stable id 则会抛出该异常。
+     * @see SelectableHelper#useStableIds()
+     */
+    public void useStableIds() throws IllegalStateException {
+        mSelectableHelper.useStableIds();
+    }
+
     /**
      * 设置一个用于监听 “选中数量” 改变的监听器。
      *
@@ -87,6 +135,16 @@ public abstract class SelectableAdapter<Holder extends RecyclerView.ViewHolder &
         mSelectableHelper.setOnSelectCountChangeListener(listener);
     }
 
+    /**
+     * 设置一个用于监听选中项增量改变的监听器。
+     *
+     * @param listener 监听器，可为 null。为 null 时将清除上次设置的监听器。
+     * @see SelectableHelper#setOnSelectionDeltaListener(SelectableHelper.OnSelectionDeltaListener)
+     */
+    public void setOnSelectionDeltaListener(@Nullable SelectableHelper.OnSelectionDeltaListener listener) {
+        mSelectableHelper.setOnSelectionDeltaListener(listener);
+    }
+
     /**
      * 查询某个列表项是否已被选中。
      *
@@ -115,6 +173,93 @@ public abstract class SelectableAdapter<Holder extends RecyclerView.ViewHolder &
         mSelectableHelper.setSelect(position, select);
     }
 
+    /**
+     * 批量设置多个列表项的选中状态。所有的改变会在设置完成后一次性派发。
+     *
+     * @param positions 要设置选中状态的列表项的位置，不能为 null。
+     * @param select    是否选中这些列表项。
+     * @throws IllegalArgumentException 当某个 position 小于 0，或者超出列表项的最大索引值会抛出该异常。
+     * @see SelectableHelper#setSelect(int[], boolean)
+     */
+    public void setSelect(@NonNull int[] positions, boolean select) throws IllegalArgumentException {
+        mSelectableHelper.setSelect(positions, select);
+    }
+
+    /**
+     * 开始一次批量操作，在调用 {@link #commit()} 方法之前，所有选中状态的改变都不会被派发。
+     *
+     * @see SelectableHelper#beginBatch()
+     */
+    public void beginBatch() {
+        mSelectableHelper.beginBatch();
+    }
+
+    /**
+     * 结束批量操作，并一次性派发期间发生的所有改变。
+     *
+     * @throws IllegalStateException 如果没有与之对应的 {@link #beginBatch()} 调用，则会抛出该异常。
+     * @see SelectableHelper#commit()
+     */
+    public void commit() throws IllegalStateException {
+        mSelectableHelper.commit();
+    }
+
+    /**
+     * 选中 [start, end) 区间内的所有列表项。只能在 {@link SelectableHelper.SelectMode#MULTIPLE} 多选模
+     * 式下调用该方法。
+     *
+     * @param start 区间的起始位置（包含）。
+     * @param end   区间的结束位置（不包含）。
+     * @throws IllegalArgumentException 当 start 小于 0、end 超出列表项的数量或者 start 大于 end 时会抛出
+     *                                  该异常。
+     * @throws IllegalStateException    当前不是多选模式时会抛出该异常。
+     * @see SelectableHelper#selectRange(int, int)
+     */
+    public void selectRange(int start, int end) throws IllegalArgumentException, IllegalStateException {
+        mSelectableHelper.selectRange(start, end);
+    }
+
+    /**
+     * 选中所有列表项。只能在 {@link SelectableHelper.SelectMode#MULTIPLE} 多选模式下调用该方法。
+     *
+     * @throws IllegalStateException 当前不是多选模式时会抛出该异常。
+     */
+    public void selectAll() throws IllegalStateException {
+        mSelectableHelper.selectAll();
+    }
+
+    /**
+     * 反选所有列表项。只能在 {@link SelectableHelper.SelectMode#MULTIPLE} 多选模式下调用该方法。
+     *
+     * @throws IllegalStateException 当前不是多选模式时会抛出该异常。
+     */
+    public void invertSelection() throws IllegalStateException {
+        mSelectableHelper.invertSelection();
+    }
+
+    /**
+     * 将选择模式与所有选中项紧凑地保存到 outState 中。可以在 Activity 或 Fragment 的
+     * onSaveInstanceState 方法中调用该方法。
+     *
+     * @param outState 用于保存状态的 Bundle 对象，不能为 null。
+     * @see SelectableHelper#onSaveInstanceState(Bundle)
+     */
+    public void onSaveInstanceState(@NonNull Bundle outState) {
+        mSelectableHelper.onSaveInstanceState(outState);
+    }
+
+    /**
+     * 恢复由 {@link #onSaveInstanceState(Bundle)} 方法保存的状态。
+     *
+     * @param savedInstanceState 保存了状态的 Bundle 对象，可为 null。
+     * @throws IllegalStateException 如果保存状态时处于 “key 模式”，但当前没有设置 key 提供者，则会抛出
+     *                               该异常。
+     * @see SelectableHelper#onRestoreInstanceState(Bundle)
+     */
+    public void onRestoreInstanceState(@Nullable Bundle savedInstanceState) throws IllegalStateException {
+        mSelectableHelper.onRestoreInstanceState(savedInstanceState);
+    }
+
     /**
      * 设置 {@link ItemClickHelper.OnItemClickListener} 事件监听器，该监听器会在某个列表项被 “点击” 时调用。
      *
@@ -135,6 +280,33 @@ public abstract class SelectableAdapter<Holder extends RecyclerView.ViewHolder &
         mItemClickHelper.setOnItemLongClickListener(listener);
     }
 
+    /**
+     * 设置是否启用 “触摸分发模式”。启用后绑定列表项时不会再为列表项视图设置事件监听器。
+     *
+     * @see ItemClickHelper#setTouchDispatchEnabled(boolean)
+     */
+    public void setTouchDispatchEnabled(boolean enabled) {
+        mItemClickHelper.setTouchDispatchEnabled(enabled);
+    }
+
+    /**
+     * 设置列表项 “点击” 事件的节流。
+     *
+     * @see ItemClickHelper#setClickThrottle(long, int)
+     */
+    public void setClickThrottle(long windowMillis, int scope) throws IllegalArgumentException {
+        mItemClickHelper.setClickThrottle(windowMillis, scope);
+    }
+
+    /**
+     * 设置列表项 “点击” 事件的防抖。
+     *
+     * @see ItemClickHelper#setClickDebounce(long, int)
+     */
+    public void setClickDebounce(long windowMillis, int scope) throws IllegalArgumentException {
+        mItemClickHelper.setClickDebounce(windowMillis, scope);
+    }
+
     /**
      * 获取所有已被选中的列表项的索引值。
      *
@@ -143,4 +315,45 @@ public abstract class SelectableAdapter<Holder extends RecyclerView.ViewHolder &
     public List<Integer> getSelectedPositions() {
         return mSelectableHelper.getSelectedPositions();
     }
+
+    /**
+     * 按升序遍历所有已选中的列表项的位置，不会复制选中项，也不会对位置进行装箱。
+     *
+     * @param consumer 用于接收每一个已选中的列表项的位置，不能为 null。
+     * @see SelectableHelper#forEachSelected(SelectableHelper.PositionConsumer)
+     */
+    public void forEachSelected(@NonNull SelectableHelper.PositionConsumer consumer) {
+        mSelectableHelper.forEachSelected(consumer);
+    }
+
+    /**
+     * 将所有已选中的列表项的位置按升序复制到 dest 数组中。
+     *
+     * @param dest 目标数组，不能为 null，其长度不能小于选中项的数量。
+     * @return 复制的位置的数量。
+     * @throws IllegalArgumentException 如果 dest 数组的长度小于选中项的数量，则会抛出该异常。
+     * @see SelectableHelper#copySelectedInto(int[])
+     */
+    public int copySelectedInto(@NonNull int[] dest) throws IllegalArgumentException {
+        return mSelectableHelper.copySelectedInto(dest);
+    }
+
+    /**
+     * 获取被选中项的数量。
+     *
+     * @return 被选中项的数量。
+     */
+    public int getSelectedCount() {
+        return mSelectableHelper.getSelectedCount();
+    }
+
+    /**
+     * 创建当前选中状态的一个不可变快照，快照可以在任意线程中读取。
+     *
+     * @see SelectableHelper#snapshot()
+     */
+    @NonNull
+    public SelectableHelper.Snapshot snapshot() {
+        return mSelectableHelper.snapshot();
+    }
 }
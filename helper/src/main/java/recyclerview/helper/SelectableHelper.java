@@ -23,13 +23,13 @@
  */
 package recyclerview.helper;
 
+import android.os.Bundle;
+
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -54,12 +54,48 @@ import java.util.List;
  * 具体做法请参考 <a target="_blank" href="https://github.com/jrfeng/rv-helper/blob/master/helper/src/main/java/recyclerview/helper/SelectableAdapter.java">SelectableAdapter</a> 的源码。
  */
 public class SelectableHelper {
+    /**
+     * 由选中状态改变引起的 notifyItemRangeChanged 调用都会携带该 payload。
+     * <p>
+     * 可以在 RecyclerView.Adapter 的 onBindViewHolder(holder, position, payloads) 方法中使用
+     * {@link #isSelectStatePayload(List)} 方法进行判断，如果为 true，则只需更新列表项的选中状态，而无需
+     * 重新绑定整个列表项。
+     */
+    public static final Object PAYLOAD_SELECT_STATE = new Object();
+
+    private static final String KEY_SELECT_MODE = "recyclerview.helper.SelectableHelper.SELECT_MODE";
+    private static final String KEY_KEY_MODE = "recyclerview.helper.SelectableHelper.KEY_MODE";
+    private static final String KEY_SELECTION = "recyclerview.helper.SelectableHelper.SELECTION";
+
     @Nullable
     private RecyclerView mRecyclerView;
     private RecyclerView.Adapter mAdapter;
 
     private SelectMode mSelectMode;
-    private List<Integer> mSelectedPositions;
+    private SortedIntSet mSelectedPositions;
+
+    // 不为 null 时处于 “key 模式”，此时使用 mSelectedKeys 保存选中项
+    @Nullable
+    private KeyProvider mKeyProvider;
+    private LongHashSet mSelectedKeys;
+    // 清理 key 时使用的临时集合，与 mSelectedKeys 交替使用，避免每次清理都分配新的集合
+    private LongHashSet mScratchKeys;
+    private boolean mPruneKeysPending;
+    private Runnable mPruneKeysRunnable;
+
+    // 批量操作的嵌套深度，以及尚未派发的选中状态改变
+    private int mBatchDepth;
+    private SortedIntSet mChangedPositions;
+    private boolean mSelectCountChanged;
+
+    // 尚未派发的增量改变，只在设置了 OnSelectionDeltaListener 时记录
+    private SortedIntSet mAddedPositions;
+    private SortedIntSet mRemovedPositions;
+    private SortedIntSet mItemRemovedPositions;
+    private SortedIntSet mEmptyPositions;
+    private SelectionDelta mSelectionDelta;
+    @Nullable
+    private OnSelectionDeltaListener mOnSelectionDeltaListener;
 
     private RecyclerView.AdapterDataObserver mAdapterDataObserver;
     private OnSelectCountChangeListener mOnSelectCountChangeListener;
@@ -74,28 +110,68 @@ public class SelectableHelper {
         mAdapter = adapter;
         mRecyclerView = null;
 
+        mSelectedPositions = new SortedIntSet();
+        mSelectedKeys = new LongHashSet();
+        mScratchKeys = new LongHashSet();
+        mChangedPositions = new SortedIntSet();
+        mAddedPositions = new SortedIntSet();
+        mRemovedPositions = new SortedIntSet();
+        mItemRemovedPositions = new SortedIntSet();
+        mEmptyPositions = new SortedIntSet();
+        mSelectionDelta = new SelectionDelta();
+
         if (selectedPositions == null) {
             mSelectMode = SelectMode.SINGLE;
-            mSelectedPositions = new ArrayList<>();
         } else {
             mSelectMode = SelectMode.MULTIPLE;
-            mSelectedPositions = new ArrayList<>(selectedPositions);
+            for (Integer position : selectedPositions) {
+                mSelectedPositions.add(position);
+            }
         }
 
         initAdapterDataObserver();
+
+        mPruneKeysRunnable = new Runnable() {
+            @Override
+            public void run() {
+                pruneSelectedKeys();
+            }
+        };
     }
 
     /**
      * 需要在 RecyclerView.onBindViewHolder 方法中调用该方法。
      */
     public <Holder extends RecyclerView.ViewHolder & Selectable> void updateSelectState(@NonNull Holder holder, int position) {
-        if (mSelectedPositions.contains(position)) {
+        if (isSelected(position)) {
             holder.onSelected();
         } else {
             holder.onUnselected();
         }
     }
 
+    /**
+     * 判断 payloads 是否只包含 {@link #PAYLOAD_SELECT_STATE}。
+     *
+     * @param payloads onBindViewHolder(holder, position, payloads) 方法的 payloads 参数，不能为 null。
+     * @return 如果 payloads 不为空且只包含 {@link #PAYLOAD_SELECT_STATE} 则返回 true，否则返回 false。
+     * 返回 true 时只需更新列表项的选中状态。
+     */
+    public static boolean isSelectStatePayload(@NonNull List<Object> payloads) {
+        NonNullUtil.requireNonNull(payloads);
+
+        if (payloads.isEmpty()) {
+            return false;
+        }
+
+        for (int i = 0; i < payloads.size(); i++) {
+            if (payloads.get(i) != PAYLOAD_SELECT_STATE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * 附加到一个 RecyclerView 对象上。
      *
@@ -112,6 +188,11 @@ public class SelectableHelper {
      * 分离当前 {@link SelectableHelper} 对象。
      */
     public void detach() {
+        if (mRecyclerView != null && mPruneKeysPending) {
+            mRecyclerView.removeCallbacks(mPruneKeysRunnable);
+            pruneSelectedKeys();
+        }
+
         mRecyclerView = null;
         unregisterAdapterDataObserver();
     }
@@ -139,14 +220,307 @@ public class SelectableHelper {
         }
     }
 
+    /**
+     * 设置列表项的 key 提供者。
+     * <p>
+     * 设置 key 提供者后将切换到 “key 模式”，此时会使用列表项的 key（而不是列表项的位置）来保存选中状态，
+     * 已选中的列表项会被转换为对应的 key。在 “key 模式” 下，列表项的插入、移除与移动不需要重新映射选中
+     * 状态，因此 DiffUtil 派发大量的移动事件时也不会产生额外的开销。被移除的列表项的 key 会在移除事件派发
+     * 完成后统一清理。
+     * <p>
+     * 注意：由于列表项被移除后无法再获取它的 key，因此每一批移除事件（例如一次 DiffUtil 的派发）之后，清理
+     * 时都需要按位置调用 {@link KeyProvider#getKey(int)} 方法查找仍然存在的选中项，最坏情况下的时间复杂度
+     * 为 O(n)，n 为列表项的数量。找到所有选中的 key 后会提前结束查找，且清理过程不会分配对象。
+     * <p>
+     * 列表项的 key 必须唯一且稳定。
+     *
+     * @param keyProvider key 提供者，可为 null。为 null 时将切换回按位置保存选中状态的模式。
+     * @see #useStableIds()
+     */
+    public void setKeyProvider(@Nullable KeyProvider keyProvider) {
+        if (mKeyProvider == keyProvider) {
+            return;
+        }
+
+        boolean wasKeyMode = isKeyMode();
+        int count = mAdapter.getItemCount();
+
+        if (wasKeyMode) {
+            // 先将选中的 key 转换为位置
+            mSelectedPositions.clear();
+            for (int position = 0; position < count; position++) {
+                if (mSelectedKeys.contains(mKeyProvider.getKey(position))) {
+                    mSelectedPositions.add(position);
+                }
+            }
+            mSelectedKeys.clear();
+        }
+
+        mKeyProvider = keyProvider;
+
+        if (isKeyMode()) {
+            for (int i = 0; i < mSelectedPositions.rangeCount(); i++) {
+                int end = mSelectedPositions.rangeEnd(i);
+                for (int position = mSelectedPositions.rangeStart(i); position < end; position++) {
+                    mSelectedKeys.add(keyProvider.getKey(position));
+                }
+            }
+            mSelectedPositions.clear();
+        }
+    }
+
+    /**
+     * 使用 RecyclerView.Adapter 的 stable id（即 getItemId 方法的返回值）作为列表项的 key。
+     *
+     * @throws IllegalStateException 如果 RecyclerView.Adapter 没有启用 stable id 则会抛出该异常。
+     * @see #setKeyProvider(KeyProvider)
+     */
+    public void useStableIds() throws IllegalStateException {
+        if (!mAdapter.hasStableIds()) {
+            throw new IllegalStateException("adapter has no stable ids");
+        }
+
+        setKeyProvider(new KeyProvider() {
+            @Override
+            public long getKey(int position) {
+                return mAdapter.getItemId(position);
+            }
+        });
+    }
+
     /**
      * 清除所所列表项的选中状态。
      */
     public void clearSelected() {
-        for (int position : new ArrayList<>(mSelectedPositions)) {
-            deselect(position);
+        mSelectCountChanged = true;
+
+        if (isKeyMode()) {
+            if (!mSelectedKeys.isEmpty()) {
+                deselectKeyPositions(false);
+                mSelectedKeys.clear();
+            }
+        } else if (!mSelectedPositions.isEmpty()) {
+            deselectRanges(0, Integer.MAX_VALUE);
+            mSelectedPositions.clear();
+        }
+
+        dispatchSelectionChanges();
+    }
+
+    /**
+     * 开始一次批量操作。
+     * <p>
+     * 在调用 {@link #commit()} 方法之前，所有选中状态的改变都只会被记录下来，直到调用 {@link #commit()}
+     * 方法时才会一次性派发：“选中数量” 改变监听器最多只会被调用一次，并且只会为发生改变的区间调用
+     * notifyItemRangeChanged 方法。
+     * <p>
+     * 该方法可以嵌套调用，此时只有最外层的 {@link #commit()} 方法才会派发改变。
+     *
+     * @see #commit()
+     */
+    public void beginBatch() {
+        mBatchDepth++;
+    }
+
+    /**
+     * 结束由 {@link #beginBatch()} 方法开始的批量操作，并派发期间发生的所有改变。
+     *
+     * @throws IllegalStateException 如果没有与之对应的 {@link #beginBatch()} 调用，则会抛出该异常。
+     */
+    public void commit() throws IllegalStateException {
+        if (mBatchDepth <= 0) {
+            throw new IllegalStateException("commit() without beginBatch()");
+        }
+
+        mBatchDepth--;
+        dispatchSelectionChanges();
+    }
+
+    /**
+     * 批量设置多个列表项的选中状态。所有的改变会在设置完成后一次性派发。
+     *
+     * @param positions 要设置选中状态的列表项的位置，不能为 null。
+     * @param select    是否选中这些列表项。
+     * @throws IllegalArgumentException 当某个 position 小于 0，或者超出列表项的最大索引值会抛出该异常。
+     * @see #beginBatch()
+     */
+    public void setSelect(@NonNull int[] positions, boolean select) throws IllegalArgumentException {
+        NonNullUtil.requireNonNull(positions);
+
+        beginBatch();
+        try {
+            for (int position : positions) {
+                setSelect(position, select);
+            }
+        } finally {
+            commit();
         }
-        notifySelectCountChanged();
+    }
+
+    /**
+     * 选中 [start, end) 区间内的所有列表项。
+     * <p>
+     * 该方法的时间复杂度只与已选中区间的数量有关，而与区间中列表项的数量无关。只能在
+     * {@link SelectMode#MULTIPLE} 多选模式下调用该方法。
+     *
+     * @param start 区间的起始位置（包含）。
+     * @param end   区间的结束位置（不包含）。
+     * @throws IllegalArgumentException 当 start 小于 0、end 超出列表项的数量或者 start 大于 end 时会抛出
+     *                                  该异常。
+     * @throws IllegalStateException    当前不是 {@link SelectMode#MULTIPLE} 多选模式时会抛出该异常。
+     */
+    public void selectRange(int start, int end) throws IllegalArgumentException, IllegalStateException {
+        checkMultipleMode();
+        checkRange(start, end);
+
+        int added = 0;
+        if (isKeyMode()) {
+            for (int position = start; position < end; position++) {
+                if (mSelectedKeys.add(mKeyProvider.getKey(position))) {
+                    recordDelta(position, position + 1, true);
+                    added++;
+                }
+            }
+        } else {
+            recordUnselectedGaps(start, end);
+            added = mSelectedPositions.addRange(start, end);
+        }
+
+        if (added == 0) {
+            return;
+        }
+
+        mSelectCountChanged = true;
+        mChangedPositions.addRange(start, end);
+        dispatchSelectionChanges();
+    }
+
+    /**
+     * 选中所有列表项。只能在 {@link SelectMode#MULTIPLE} 多选模式下调用该方法。
+     *
+     * @throws IllegalStateException 当前不是 {@link SelectMode#MULTIPLE} 多选模式时会抛出该异常。
+     */
+    public void selectAll() throws IllegalStateException {
+        selectRange(0, mAdapter.getItemCount());
+    }
+
+    /**
+     * 反选所有列表项，即选中所有未选中的列表项，并取消所有已选中的列表项的选中状态。
+     * <p>
+     * 该方法的时间复杂度只与已选中区间的数量有关，而与列表项的数量无关。只能在
+     * {@link SelectMode#MULTIPLE} 多选模式下调用该方法。
+     *
+     * @throws IllegalStateException 当前不是 {@link SelectMode#MULTIPLE} 多选模式时会抛出该异常。
+     */
+    public void invertSelection() throws IllegalStateException {
+        checkMultipleMode();
+
+        int count = mAdapter.getItemCount();
+        if (count == 0) {
+            return;
+        }
+
+        if (isKeyMode()) {
+            for (int position = 0; position < count; position++) {
+                long key = mKeyProvider.getKey(position);
+                if (mSelectedKeys.remove(key)) {
+                    recordDelta(position, position + 1, false);
+                } else {
+                    mSelectedKeys.add(key);
+                    recordDelta(position, position + 1, true);
+                }
+            }
+        } else {
+            recordSelectedRanges(0, count, false);
+            recordUnselectedGaps(0, count);
+            mSelectedPositions.complement(count);
+        }
+
+        mSelectCountChanged = true;
+        mChangedPositions.addRange(0, count);
+        dispatchSelectionChanges();
+    }
+
+    /**
+     * 将选择模式与所有选中项保存到 outState 中。
+     * <p>
+     * 选中项会被紧凑地编码为一个字节数组：按位置保存时会在 “区间编码” 与 “位图编码” 中选择较小的一种，
+     * 因此即使选中了大量列表项，其大小也不会超过 (列表项数量 / 8) 个字节左右；“key 模式” 下则会以差值编
+     * 码的形式保存所有选中的 key。
+     *
+     * @param outState 用于保存状态的 Bundle 对象，不能为 null。
+     * @see #onRestoreInstanceState(Bundle)
+     */
+    public void onSaveInstanceState(@NonNull Bundle outState) {
+        NonNullUtil.requireNonNull(outState);
+
+        if (isKeyMode() && mPruneKeysPending) {
+            pruneSelectedKeys();
+        }
+
+        byte[] selection = isKeyMode() ? mSelectedKeys.toByteArray() : mSelectedPositions.toByteArray();
+
+        outState.putInt(KEY_SELECT_MODE, mSelectMode.ordinal());
+        outState.putBoolean(KEY_KEY_MODE, isKeyMode());
+        outState.putByteArray(KEY_SELECTION, selection);
+    }
+
+    /**
+     * 从 savedInstanceState 中恢复由 {@link #onSaveInstanceState(Bundle)} 方法保存的状态。
+     * <p>
+     * 如果保存状态时处于 “key 模式”，那么在调用该方法前需要先调用 {@link #setKeyProvider(KeyProvider)}
+     * 方法或 {@link #useStableIds()} 方法设置 key 提供者。
+     *
+     * @param savedInstanceState 保存了状态的 Bundle 对象，可为 null。为 null 或者其中没有保存状态时不做
+     *                           任何处理。
+     * @throws IllegalStateException 如果保存状态时处于 “key 模式”，但当前没有设置 key 提供者，则会抛出
+     *                               该异常。
+     */
+    public void onRestoreInstanceState(@Nullable Bundle savedInstanceState) throws IllegalStateException {
+        if (savedInstanceState == null || !savedInstanceState.containsKey(KEY_SELECTION)) {
+            return;
+        }
+
+        boolean savedKeyMode = savedInstanceState.getBoolean(KEY_KEY_MODE);
+        if (savedKeyMode && !isKeyMode()) {
+            throw new IllegalStateException("key provider is required to restore the selected keys");
+        }
+
+        byte[] selection = savedInstanceState.getByteArray(KEY_SELECTION);
+        mSelectMode = SelectMode.values()[savedInstanceState.getInt(KEY_SELECT_MODE)];
+
+        if (isKeyMode()) {
+            recordSelectedKeys(false);
+        } else {
+            recordSelectedRanges(0, Integer.MAX_VALUE, false);
+        }
+
+        if (savedKeyMode) {
+            mSelectedKeys = LongHashSet.fromByteArray(selection);
+        } else if (isKeyMode()) {
+            // 保存状态时是按位置保存的，需要转换为 key
+            SortedIntSet positions = SortedIntSet.fromByteArray(selection);
+            int count = mAdapter.getItemCount();
+            mSelectedKeys.clear();
+            for (int i = 0; i < positions.rangeCount(); i++) {
+                int end = Math.min(positions.rangeEnd(i), count);
+                for (int position = positions.rangeStart(i); position < end; position++) {
+                    mSelectedKeys.add(mKeyProvider.getKey(position));
+                }
+            }
+        } else {
+            mSelectedPositions = SortedIntSet.fromByteArray(selection);
+        }
+
+        if (isKeyMode()) {
+            recordSelectedKeys(true);
+        } else {
+            recordSelectedRanges(0, Integer.MAX_VALUE, true);
+        }
+
+        mSelectCountChanged = true;
+        mChangedPositions.addRange(0, mAdapter.getItemCount());
+        dispatchSelectionChanges();
     }
 
     /**
@@ -158,6 +532,29 @@ public class SelectableHelper {
         mOnSelectCountChangeListener = listener;
     }
 
+    /**
+     * 设置一个用于监听选中项增量改变的监听器。
+     * <p>
+     * 每次派发选中状态的改变时，该监听器都会收到被选中与被取消选中的列表项的区间，因此可以只根据这些
+     * 增量来维护汇总数据，而不需要每次都调用 {@link #getSelectedPositions()} 方法。
+     * <p>
+     * 只有在设置了该监听器后才会记录增量，未设置时不会产生额外的开销。
+     * <p>
+     * 注意：在 “key 模式” 下，由于无法得知被移除的列表项的位置，因此因列表项被移除而被清理的 key 不会
+     * 通过该监听器报告，但依然会回调 {@link OnSelectCountChangeListener}。
+     *
+     * @param listener 监听器，可为 null。为 null 时将清除上次设置的监听器。
+     * @see SelectionDelta
+     */
+    public void setOnSelectionDeltaListener(@Nullable OnSelectionDeltaListener listener) {
+        mOnSelectionDeltaListener = listener;
+
+        if (listener == null) {
+            mAddedPositions.clear();
+            mRemovedPositions.clear();
+        }
+    }
+
     /**
      * 设置某个列表项的选中状态。
      *
@@ -175,10 +572,15 @@ public class SelectableHelper {
             throw new IllegalArgumentException("position out of bound. position is " + position + ", size is: " + count);
         }
 
-        if (select) {
-            select(position);
-        } else {
-            deselect(position);
+        beginBatch();
+        try {
+            if (select) {
+                select(position);
+            } else {
+                deselect(position);
+            }
+        } finally {
+            commit();
         }
     }
 
@@ -196,15 +598,27 @@ public class SelectableHelper {
      * @return 如果 position 处的列表项已被选中，则返回 true，否则返回 false。
      */
     public boolean isSelected(int position) {
+        if (isKeyMode()) {
+            return mSelectedKeys.contains(mKeyProvider.getKey(position));
+        }
+
         return mSelectedPositions.contains(position);
     }
 
     /**
      * 获取被选中项的数量。
+     * <p>
+     * 时间复杂度为 O(1)。“key 模式” 下被移除的列表项的 key 会在移除事件派发完成后（下一个主线程消息中）才
+     * 被统一清理，因此在此之前，返回值中可能仍包含这些列表项，清理完成后会通知
+     * {@link OnSelectCountChangeListener}。
      *
      * @return 被选中项的数量。
      */
     public int getSelectedCount() {
+        if (isKeyMode()) {
+            return mSelectedKeys.size();
+        }
+
         return mSelectedPositions.size();
     }
 
@@ -214,41 +628,162 @@ public class SelectableHelper {
      * @return 所有已被选中的列表项的索引值，如没有任何列表项被选中，则会返回一个空列表。
      */
     public List<Integer> getSelectedPositions() {
-        return new ArrayList<>(mSelectedPositions);
+        if (isKeyMode()) {
+            List<Integer> selectedPositions = new ArrayList<>(mSelectedKeys.size());
+            for (int position = 0, count = mAdapter.getItemCount(); position < count; position++) {
+                if (isSelected(position)) {
+                    selectedPositions.add(position);
+                }
+            }
+            return selectedPositions;
+        }
+
+        List<Integer> selectedPositions = new ArrayList<>(mSelectedPositions.size());
+        for (int i = 0; i < mSelectedPositions.rangeCount(); i++) {
+            int end = mSelectedPositions.rangeEnd(i);
+            for (int position = mSelectedPositions.rangeStart(i); position < end; position++) {
+                selectedPositions.add(position);
+            }
+        }
+        return selectedPositions;
+    }
+
+    /**
+     * 按升序遍历所有已选中的列表项的位置。
+     * <p>
+     * 该方法不会复制选中项，也不会对位置进行装箱。遍历期间不要修改选中状态。
+     *
+     * @param consumer 用于接收每一个已选中的列表项的位置，不能为 null。
+     */
+    public void forEachSelected(@NonNull PositionConsumer consumer) {
+        NonNullUtil.requireNonNull(consumer);
+
+        if (isKeyMode()) {
+            for (int position = 0, count = mAdapter.getItemCount(); position < count; position++) {
+                if (isSelected(position)) {
+                    consumer.accept(position);
+                }
+            }
+            return;
+        }
+
+        for (int i = 0; i < mSelectedPositions.rangeCount(); i++) {
+            int end = mSelectedPositions.rangeEnd(i);
+            for (int position = mSelectedPositions.rangeStart(i); position < end; position++) {
+                consumer.accept(position);
+            }
+        }
+    }
+
+    /**
+     * 将所有已选中的列表项的位置按升序复制到 dest 数组中。
+     *
+     * @param dest 目标数组，不能为 null，其长度不能小于 {@link #getSelectedCount()}。
+     * @return 复制的位置的数量。
+     * @throws IllegalArgumentException 如果 dest 数组的长度小于选中项的数量，则会抛出该异常。
+     */
+    public int copySelectedInto(@NonNull int[] dest) throws IllegalArgumentException {
+        NonNullUtil.requireNonNull(dest);
+
+        int selectedCount = getSelectedCount();
+        if (dest.length < selectedCount) {
+            throw new IllegalArgumentException("dest is too small. length is " + dest.length
+                    + ", selected count is: " + selectedCount);
+        }
+
+        int index = 0;
+        if (isKeyMode()) {
+            for (int position = 0, count = mAdapter.getItemCount(); position < count; position++) {
+                if (isSelected(position)) {
+                    dest[index++] = position;
+                }
+            }
+            return index;
+        }
+
+        for (int i = 0; i < mSelectedPositions.rangeCount(); i++) {
+            int end = mSelectedPositions.rangeEnd(i);
+            for (int position = mSelectedPositions.rangeStart(i); position < end; position++) {
+                dest[index++] = position;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 创建当前选中状态的一个不可变快照。
+     * <p>
+     * 快照与 SelectableHelper 共享底层数据（写时复制），因此创建快照的开销很小，之后对选中状态的修改
+     * 也不会影响已创建的快照。快照创建后不会再被修改，可以在任意线程中读取，适合将其交给后台线程执行批
+     * 量删除、导出等耗时操作。
+     * <p>
+     * 该方法需要在主线程中调用。
+     *
+     * @return 当前选中状态的快照。
+     */
+    @NonNull
+    public Snapshot snapshot() {
+        if (isKeyMode()) {
+            if (mPruneKeysPending) {
+                pruneSelectedKeys();
+            }
+            return new Snapshot(null, mSelectedKeys.snapshot());
+        }
+
+        return new Snapshot(mSelectedPositions.snapshot(), null);
     }
 
     // **************************************private**************************************
 
     private void initAdapterDataObserver() {
         mAdapterDataObserver = new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onChanged() {
+                if (isKeyMode()) {
+                    schedulePruneSelectedKeys();
+                }
+            }
+
             @Override
             public void onItemRangeInserted(int positionStart, int itemCount) {
-                for (int i = 0; i < mSelectedPositions.size(); i++) {
-                    Integer selectedItem = mSelectedPositions.get(i);
-                    if (selectedItem >= positionStart) {
-                        mSelectedPositions.set(i, selectedItem + itemCount);
-                    }
+                mChangedPositions.insertSpan(positionStart, itemCount);
+                mAddedPositions.insertSpan(positionStart, itemCount);
+                mRemovedPositions.insertSpan(positionStart, itemCount);
+
+                if (isKeyMode()) {
+                    return;
                 }
+
+                mSelectedPositions.insertSpan(positionStart, itemCount);
             }
 
             @Override
             public void onItemRangeRemoved(int positionStart, int itemCount) {
-                int end = positionStart + itemCount;
-
-                for (Integer selectedItem : new ArrayList<>(mSelectedPositions)) {
-                    if (selectedItem >= positionStart && selectedItem < end) {
-                        mSelectedPositions.remove(selectedItem);
-                    } else if (selectedItem >= end) {
-                        mSelectedPositions.remove(selectedItem);
-                        mSelectedPositions.add(selectedItem - itemCount);
-                    }
+                mChangedPositions.deleteSpan(positionStart, itemCount);
+
+                if (isKeyMode()) {
+                    mAddedPositions.deleteSpan(positionStart, itemCount);
+                    mRemovedPositions.deleteSpan(positionStart, itemCount);
+
+                    // key 模式下无法得知被移除的列表项的 key，因此需要在所有移除事件派发完成后统一清理
+                    schedulePruneSelectedKeys();
+                    return;
                 }
 
-                notifySelectCountChanged();
+                dispatchItemRemovedDelta(positionStart, positionStart + itemCount);
+                mAddedPositions.deleteSpan(positionStart, itemCount);
+                mRemovedPositions.deleteSpan(positionStart, itemCount);
+                mSelectedPositions.deleteSpan(positionStart, itemCount);
+                mSelectCountChanged = true;
+                dispatchSelectionChanges();
             }
 
             @Override
             public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+                if (isKeyMode()) {
+                    return;
+                }
+
                 for (int i = 0; i < itemCount; i++) {
                     int from = fromPosition + i;
                     int to = toPosition + i;
@@ -264,10 +799,10 @@ public class SelectableHelper {
                     }
 
                     if (mSelectedPositions.contains(from)) {
-                        mSelectedPositions.remove(Integer.valueOf(from));
+                        mSelectedPositions.remove(from);
                         mSelectedPositions.add(to);
                     } else if (mSelectedPositions.contains(to)) {
-                        mSelectedPositions.remove(Integer.valueOf(to));
+                        mSelectedPositions.remove(to);
                         mSelectedPositions.add(from);
                     }
                 }
@@ -276,48 +811,208 @@ public class SelectableHelper {
     }
 
     private void registerAdapterDataObserver() {
-        mAdapter.registerAdapterDataObserver(mAdapterDataObserver);
+        AdapterObserverHub.register(mAdapter, mAdapterDataObserver, AdapterObserverHub.ORDER_SELECTABLE_HELPER);
     }
 
     private void unregisterAdapterDataObserver() {
-        mAdapter.unregisterAdapterDataObserver(mAdapterDataObserver);
+        AdapterObserverHub.unregister(mAdapter, mAdapterDataObserver);
+    }
+
+    private boolean isKeyMode() {
+        return mKeyProvider != null;
+    }
+
+    private void schedulePruneSelectedKeys() {
+        if (mPruneKeysPending || mRecyclerView == null) {
+            return;
+        }
+
+        mPruneKeysPending = true;
+        mRecyclerView.post(mPruneKeysRunnable);
+    }
+
+    // 清理已不存在于列表中的 key
+    private void pruneSelectedKeys() {
+        if (mRecyclerView != null) {
+            mRecyclerView.removeCallbacks(mPruneKeysRunnable);
+        }
+        mPruneKeysPending = false;
+
+        if (!isKeyMode() || mSelectedKeys.isEmpty()) {
+            return;
+        }
+
+        // 找到所有选中的 key 后提前结束，此时没有需要清理的 key
+        LongHashSet existingKeys = mScratchKeys;
+        existingKeys.clear();
+        int selectedCount = mSelectedKeys.size();
+        for (int position = 0, count = mAdapter.getItemCount();
+             position < count && existingKeys.size() < selectedCount; position++) {
+            long key = mKeyProvider.getKey(position);
+            if (mSelectedKeys.contains(key)) {
+                existingKeys.add(key);
+            }
+        }
+
+        if (existingKeys.size() != selectedCount) {
+            // 交换两个集合。旧集合可能正被快照共享，LongHashSet 在清空共享的集合时会重新分配数组，因此不会
+            // 影响快照
+            mScratchKeys = mSelectedKeys;
+            mSelectedKeys = existingKeys;
+            mSelectCountChanged = true;
+            dispatchSelectionChanges();
+        }
     }
 
     // 清除除第 1 个选中项外的其他选项的选中状态
     private void deselectOthers() {
+        if (isKeyMode()) {
+            deselectOtherKeys();
+            return;
+        }
+
         if (mSelectedPositions.size() <= 1) {
             return;
         }
 
-        List<Integer> buf = new ArrayList<>(mSelectedPositions);
-        buf.remove(Collections.min(buf));
+        int start = mSelectedPositions.min() + 1;
+        int end = mSelectedPositions.rangeEnd(mSelectedPositions.rangeCount() - 1);
 
-        for (Integer i : buf) {
-            deselect(i);
+        deselectRanges(start, end);
+        mSelectedPositions.removeRange(start, end);
+        mSelectCountChanged = true;
+        dispatchSelectionChanges();
+    }
+
+    private void deselectOtherKeys() {
+        if (mSelectedKeys.size() <= 1) {
+            return;
         }
+
+        int first = deselectKeyPositions(true);
+        mSelectedKeys.clear();
+        if (first != RecyclerView.NO_POSITION) {
+            mSelectedKeys.add(mKeyProvider.getKey(first));
+        }
+
+        mSelectCountChanged = true;
+        dispatchSelectionChanges();
     }
 
-    private void select(int position) {
-        if (isSelected(position)) {
+    private void checkMultipleMode() throws IllegalStateException {
+        if (mSelectMode != SelectMode.MULTIPLE) {
+            throw new IllegalStateException("only available in MULTIPLE mode");
+        }
+    }
+
+    private void checkRange(int start, int end) throws IllegalArgumentException {
+        if (start < 0) {
+            throw new IllegalArgumentException("start < 0");
+        }
+
+        if (start > end) {
+            throw new IllegalArgumentException("start > end. start is " + start + ", end is " + end);
+        }
+
+        int count = mAdapter.getItemCount();
+        if (end > count) {
+            throw new IllegalArgumentException("end out of bound. end is " + end + ", size is: " + count);
+        }
+    }
+
+    // 派发尚未派发的选中状态改变，批量操作期间不会派发
+    private void dispatchSelectionChanges() {
+        if (mBatchDepth > 0) {
             return;
         }
 
-        if (mSelectMode == SelectMode.SINGLE && mSelectedPositions.size() > 0) {
-            clearSelected();
+        if (mSelectCountChanged) {
+            mSelectCountChanged = false;
+            notifySelectCountChanged();
+        }
+
+        if (mOnSelectionDeltaListener != null && !(mAddedPositions.isEmpty() && mRemovedPositions.isEmpty())) {
+            mSelectionDelta.set(mAddedPositions, mRemovedPositions, false);
+            mOnSelectionDeltaListener.onSelectionDelta(mSelectionDelta);
         }
+        mAddedPositions.clear();
+        mRemovedPositions.clear();
 
-        mSelectedPositions.add(position);
-        notifySelectCountChanged();
+        if (mChangedPositions.isEmpty()) {
+            return;
+        }
 
         if (mRecyclerView == null) {
+            mChangedPositions.clear();
             return;
         }
 
-        RecyclerView.ViewHolder holder = mRecyclerView.findViewHolderForAdapterPosition(position);
-        if (holder != null) {
-            Selectable selectable = (Selectable) holder;
-            selectable.onSelected();
+        // 直接更新已附加的 ViewHolder
+        int firstAttached = Integer.MAX_VALUE;
+        int lastAttached = RecyclerView.NO_POSITION;
+        for (int i = 0; i < mRecyclerView.getChildCount(); i++) {
+            RecyclerView.ViewHolder holder = mRecyclerView.getChildViewHolder(mRecyclerView.getChildAt(i));
+            int position = holder.getAdapterPosition();
+            if (position == RecyclerView.NO_POSITION) {
+                continue;
+            }
+
+            firstAttached = Math.min(firstAttached, position);
+            lastAttached = Math.max(lastAttached, position);
+
+            if (mChangedPositions.contains(position)) {
+                Selectable selectable = (Selectable) holder;
+                if (isSelected(position)) {
+                    selectable.onSelected();
+                } else {
+                    selectable.onUnselected();
+                }
+            }
         }
+
+        // 未附加的 ViewHolder（例如被缓存的 ViewHolder）需要重新绑定
+        for (int i = 0; i < mChangedPositions.rangeCount(); i++) {
+            int start = mChangedPositions.rangeStart(i);
+            int end = mChangedPositions.rangeEnd(i);
+
+            if (lastAttached == RecyclerView.NO_POSITION) {
+                mAdapter.notifyItemRangeChanged(start, end - start, PAYLOAD_SELECT_STATE);
+                continue;
+            }
+
+            if (start < firstAttached) {
+                int headEnd = Math.min(end, firstAttached);
+                mAdapter.notifyItemRangeChanged(start, headEnd - start, PAYLOAD_SELECT_STATE);
+            }
+
+            if (end > lastAttached + 1) {
+                int tailStart = Math.max(start, lastAttached + 1);
+                mAdapter.notifyItemRangeChanged(tailStart, end - tailStart, PAYLOAD_SELECT_STATE);
+            }
+        }
+
+        mChangedPositions.clear();
+    }
+
+    private void select(int position) {
+        if (isSelected(position)) {
+            return;
+        }
+
+        if (mSelectMode == SelectMode.SINGLE && getSelectedCount() > 0) {
+            clearSelected();
+        }
+
+        if (isKeyMode()) {
+            mSelectedKeys.add(mKeyProvider.getKey(position));
+        } else {
+            mSelectedPositions.add(position);
+        }
+
+        recordDelta(position, position + 1, true);
+        mSelectCountChanged = true;
+        mChangedPositions.add(position);
+        dispatchSelectionChanges();
     }
 
     private void deselect(int position) {
@@ -325,27 +1020,179 @@ public class SelectableHelper {
             return;
         }
 
-        // 要手动装箱, 否则调用的是 remove(int):E 方法, 而不是 remove(Object):boolean 方法
-        mSelectedPositions.remove(Integer.valueOf(position));
-        notifySelectCountChanged();
+        if (isKeyMode()) {
+            mSelectedKeys.remove(mKeyProvider.getKey(position));
+        } else {
+            mSelectedPositions.remove(position);
+        }
 
-        if (mRecyclerView == null) {
+        recordDelta(position, position + 1, false);
+        mSelectCountChanged = true;
+        mChangedPositions.add(position);
+        dispatchSelectionChanges();
+    }
+
+    // 记录 [start, end) 区间内的列表项被选中（selected 为 true）或被取消选中，与尚未派发的相反改变相互抵消
+    private void recordDelta(int start, int end, boolean selected) {
+        if (mOnSelectionDeltaListener == null || start >= end) {
             return;
         }
 
-        RecyclerView.ViewHolder holder = mRecyclerView.findViewHolderForAdapterPosition(position);
-        if (holder != null) {
-            Selectable selectable = (Selectable) holder;
-            selectable.onUnselected();
-        } else {
-            mAdapter.notifyItemChanged(position);
+        SortedIntSet target = selected ? mAddedPositions : mRemovedPositions;
+        SortedIntSet opposite = selected ? mRemovedPositions : mAddedPositions;
+
+        int cursor = start;
+        for (int i = opposite.ceilingRange(start); i < opposite.rangeCount(); i++) {
+            int rangeStart = opposite.rangeStart(i);
+            if (rangeStart >= end) {
+                break;
+            }
+
+            if (rangeStart > cursor) {
+                target.addRange(cursor, rangeStart);
+            }
+            cursor = Math.max(cursor, opposite.rangeEnd(i));
         }
+
+        if (cursor < end) {
+            target.addRange(cursor, end);
+        }
+
+        opposite.removeRange(start, end);
+    }
+
+    // 将 [start, end) 区间内已选中的列表项记录为被选中或被取消选中（仅按位置保存时）
+    private void recordSelectedRanges(int start, int end, boolean selected) {
+        if (mOnSelectionDeltaListener == null) {
+            return;
+        }
+
+        for (int i = mSelectedPositions.ceilingRange(start); i < mSelectedPositions.rangeCount(); i++) {
+            int rangeStart = mSelectedPositions.rangeStart(i);
+            if (rangeStart >= end) {
+                break;
+            }
+
+            recordDelta(Math.max(start, rangeStart), Math.min(end, mSelectedPositions.rangeEnd(i)), selected);
+        }
+    }
+
+    // 将 [start, end) 区间内已选中的列表项记录为被取消选中，并只将这些列表项加入待通知的改变区间（仅按位
+    // 置保存时）。不会修改 mSelectedPositions
+    private void deselectRanges(int start, int end) {
+        recordSelectedRanges(start, end, false);
+
+        for (int i = mSelectedPositions.ceilingRange(start); i < mSelectedPositions.rangeCount(); i++) {
+            int rangeStart = mSelectedPositions.rangeStart(i);
+            if (rangeStart >= end) {
+                break;
+            }
+
+            mChangedPositions.addRange(Math.max(start, rangeStart), Math.min(end, mSelectedPositions.rangeEnd(i)));
+        }
+    }
+
+    // 将已选中的 key 对应的列表项记录为被取消选中，并只将这些列表项加入待通知的改变区间（仅 key 模式）。
+    // keepFirst 为 true 时保留第 1 个选中项，并返回它的位置。不会修改 mSelectedKeys
+    private int deselectKeyPositions(boolean keepFirst) {
+        int first = RecyclerView.NO_POSITION;
+        for (int position = 0, count = mAdapter.getItemCount(); position < count; position++) {
+            if (!isSelected(position)) {
+                continue;
+            }
+
+            if (keepFirst && first == RecyclerView.NO_POSITION) {
+                first = position;
+                continue;
+            }
+
+            recordDelta(position, position + 1, false);
+            mChangedPositions.addRange(position, position + 1);
+        }
+        return first;
+    }
+
+    // 将 [start, end) 区间内未选中的列表项记录为被选中（仅按位置保存时）
+    private void recordUnselectedGaps(int start, int end) {
+        if (mOnSelectionDeltaListener == null) {
+            return;
+        }
+
+        int cursor = start;
+        for (int i = mSelectedPositions.ceilingRange(start); i < mSelectedPositions.rangeCount(); i++) {
+            int rangeStart = mSelectedPositions.rangeStart(i);
+            if (rangeStart >= end) {
+                break;
+            }
+
+            recordDelta(cursor, rangeStart, true);
+            cursor = Math.max(cursor, mSelectedPositions.rangeEnd(i));
+        }
+
+        recordDelta(cursor, end, true);
+    }
+
+    // 将所有已选中的列表项记录为被选中或被取消选中（仅 key 模式）
+    private void recordSelectedKeys(boolean selected) {
+        if (mOnSelectionDeltaListener == null) {
+            return;
+        }
+
+        for (int position = 0, count = mAdapter.getItemCount(); position < count; position++) {
+            if (isSelected(position)) {
+                recordDelta(position, position + 1, selected);
+            }
+        }
+    }
+
+    // 立即派发因列表项被移除而导致的增量改变，此时的位置是列表项被移除之前的位置
+    private void dispatchItemRemovedDelta(int start, int end) {
+        if (mOnSelectionDeltaListener == null) {
+            return;
+        }
+
+        // 监听器已知的选中项 = 当前选中项 - 尚未派发的新增项 + 尚未派发的移除项
+        mItemRemovedPositions.clear();
+        for (int i = mSelectedPositions.ceilingRange(start); i < mSelectedPositions.rangeCount(); i++) {
+            int rangeStart = mSelectedPositions.rangeStart(i);
+            if (rangeStart >= end) {
+                break;
+            }
+            mItemRemovedPositions.addRange(Math.max(start, rangeStart), Math.min(end, mSelectedPositions.rangeEnd(i)));
+        }
+
+        for (int i = mAddedPositions.ceilingRange(start); i < mAddedPositions.rangeCount(); i++) {
+            int rangeStart = mAddedPositions.rangeStart(i);
+            if (rangeStart >= end) {
+                break;
+            }
+            mItemRemovedPositions.removeRange(Math.max(start, rangeStart), Math.min(end, mAddedPositions.rangeEnd(i)));
+        }
+
+        for (int i = mRemovedPositions.ceilingRange(start); i < mRemovedPositions.rangeCount(); i++) {
+            int rangeStart = mRemovedPositions.rangeStart(i);
+            if (rangeStart >= end) {
+                break;
+            }
+            mItemRemovedPositions.addRange(Math.max(start, rangeStart), Math.min(end, mRemovedPositions.rangeEnd(i)));
+        }
+
+        if (mItemRemovedPositions.isEmpty()) {
+            return;
+        }
+
+        mSelectionDelta.set(mEmptyPositions, mItemRemovedPositions, true);
+        mOnSelectionDeltaListener.onSelectionDelta(mSelectionDelta);
+        mItemRemovedPositions.clear();
     }
 
     private void notifySelectCountChanged() {
-        if (mOnSelectCountChangeListener != null) {
-            mOnSelectCountChangeListener.onSelectCountChanged(mSelectedPositions.size());
+        if (mOnSelectCountChangeListener == null) {
+            return;
         }
+
+        int selectedCount = isKeyMode() ? mSelectedKeys.size() : mSelectedPositions.size();
+        mOnSelectCountChangeListener.onSelectCountChanged(selectedCount);
     }
 
     /**
@@ -379,4 +1226,241 @@ public class SelectableHelper {
          */
         void onSelectCountChanged(int selectedCount);
     }
+
+    /**
+     * 用于接收列表项的位置。
+     *
+     * @see #forEachSelected(PositionConsumer)
+     */
+    public interface PositionConsumer {
+        void accept(int position);
+    }
+
+    /**
+     * 用于提供列表项的 key。
+     *
+     * @see #setKeyProvider(KeyProvider)
+     */
+    public interface KeyProvider {
+        /**
+         * 获取 position 处的列表项的 key。
+         *
+         * @param position 列表项的位置。
+         * @return 列表项的 key，必须唯一且稳定。
+         */
+        long getKey(int position);
+    }
+
+    /**
+     * 监听选中项的增量改变。
+     *
+     * @see #setOnSelectionDeltaListener(OnSelectionDeltaListener)
+     */
+    public interface OnSelectionDeltaListener {
+        /**
+         * 当选中项发生改变时会回调该方法。
+         *
+         * @param delta 本次改变的增量。该对象会被复用，只在该方法执行期间有效，不要保存它的引用。
+         */
+        void onSelectionDelta(@NonNull SelectionDelta delta);
+    }
+
+    /**
+     * 选中项的增量改变，包含被选中与被取消选中的列表项的区间。区间按升序排列且互不相交。
+     * <p>
+     * 该对象会被复用，因此获取增量不会产生额外的对象分配。
+     */
+    public static final class SelectionDelta {
+        private SortedIntSet mAdded;
+        private SortedIntSet mRemoved;
+        private boolean mCausedByItemRemoval;
+
+        SelectionDelta() {
+        }
+
+        void set(SortedIntSet added, SortedIntSet removed, boolean causedByItemRemoval) {
+            mAdded = added;
+            mRemoved = removed;
+            mCausedByItemRemoval = causedByItemRemoval;
+        }
+
+        /**
+         * 本次改变是否是由列表项被移除导致的。
+         * <p>
+         * 如果为 true，那么 {@link #getRemovedRangeStart(int)} 与 {@link #getRemovedRangeEnd(int)}
+         * 返回的是这些列表项被移除之前的位置，此时它们已不在列表中。
+         */
+        public boolean isCausedByItemRemoval() {
+            return mCausedByItemRemoval;
+        }
+
+        /**
+         * 获取被选中的列表项的数量。
+         */
+        public int getAddedCount() {
+            return mAdded.size();
+        }
+
+        /**
+         * 获取被选中的列表项的区间数量。
+         */
+        public int getAddedRangeCount() {
+            return mAdded.rangeCount();
+        }
+
+        /**
+         * 获取第 index 个被选中的区间的起始位置（包含）。
+         */
+        public int getAddedRangeStart(int index) {
+            return mAdded.rangeStart(index);
+        }
+
+        /**
+         * 获取第 index 个被选中的区间的结束位置（不包含）。
+         */
+        public int getAddedRangeEnd(int index) {
+            return mAdded.rangeEnd(index);
+        }
+
+        /**
+         * 获取被取消选中的列表项的数量。
+         */
+        public int getRemovedCount() {
+            return mRemoved.size();
+        }
+
+        /**
+         * 获取被取消选中的列表项的区间数量。
+         */
+        public int getRemovedRangeCount() {
+            return mRemoved.rangeCount();
+        }
+
+        /**
+         * 获取第 index 个被取消选中的区间的起始位置（包含）。
+         */
+        public int getRemovedRangeStart(int index) {
+            return mRemoved.rangeStart(index);
+        }
+
+        /**
+         * 获取第 index 个被取消选中的区间的结束位置（不包含）。
+         */
+        public int getRemovedRangeEnd(int index) {
+            return mRemoved.rangeEnd(index);
+        }
+    }
+
+    /**
+     * 选中状态的不可变快照，可以在任意线程中读取。
+     * <p>
+     * 按位置保存选中项时，快照中保存的是创建快照时所有选中项的位置；处于 “key 模式” 时，快照中保存的是
+     * 所有选中项的 key。
+     *
+     * @see #snapshot()
+     */
+    public static final class Snapshot {
+        private final SortedIntSet mPositions;
+        private final LongHashSet mKeys;
+
+        Snapshot(SortedIntSet positions, LongHashSet keys) {
+            mPositions = positions;
+            mKeys = keys;
+        }
+
+        /**
+         * 快照是否是在 “key 模式” 下创建的。
+         */
+        public boolean isKeyMode() {
+            return mKeys != null;
+        }
+
+        /**
+         * 获取选中项的数量。
+         */
+        public int getSelectedCount() {
+            return isKeyMode() ? mKeys.size() : mPositions.size();
+        }
+
+        /**
+         * 查询创建快照时 position 处的列表项是否被选中。
+         *
+         * @throws IllegalStateException 如果快照是在 “key 模式” 下创建的，则会抛出该异常。
+         */
+        public boolean isSelected(int position) throws IllegalStateException {
+            checkPositionMode();
+            return mPositions.contains(position);
+        }
+
+        /**
+         * 查询创建快照时 key 对应的列表项是否被选中。
+         *
+         * @throws IllegalStateException 如果快照不是在 “key 模式” 下创建的，则会抛出该异常。
+         */
+        public boolean isKeySelected(long key) throws IllegalStateException {
+            checkKeyMode();
+            return mKeys.contains(key);
+        }
+
+        /**
+         * 按升序遍历快照中所有选中项的位置。
+         *
+         * @param consumer 用于接收每一个选中项的位置，不能为 null。
+         * @throws IllegalStateException 如果快照是在 “key 模式” 下创建的，则会抛出该异常。
+         */
+        public void forEachSelected(@NonNull PositionConsumer consumer) throws IllegalStateException {
+            NonNullUtil.requireNonNull(consumer);
+            checkPositionMode();
+
+            for (int i = 0; i < mPositions.rangeCount(); i++) {
+                int end = mPositions.rangeEnd(i);
+                for (int position = mPositions.rangeStart(i); position < end; position++) {
+                    consumer.accept(position);
+                }
+            }
+        }
+
+        /**
+         * 以升序数组的形式返回快照中所有选中项的位置。
+         *
+         * @throws IllegalStateException 如果快照是在 “key 模式” 下创建的，则会抛出该异常。
+         */
+        @NonNull
+        public int[] getSelectedPositions() throws IllegalStateException {
+            checkPositionMode();
+
+            int[] positions = new int[mPositions.size()];
+            int index = 0;
+            for (int i = 0; i < mPositions.rangeCount(); i++) {
+                int end = mPositions.rangeEnd(i);
+                for (int position = mPositions.rangeStart(i); position < end; position++) {
+                    positions[index++] = position;
+                }
+            }
+            return positions;
+        }
+
+        /**
+         * 以数组的形式返回快照中所有选中项的 key，key 的顺序是不确定的。
+         *
+         * @throws IllegalStateException 如果快照不是在 “key 模式” 下创建的，则会抛出该异常。
+         */
+        @NonNull
+        public long[] getSelectedKeys() throws IllegalStateException {
+            checkKeyMode();
+            return mKeys.toArray();
+        }
+
+        private void checkPositionMode() throws IllegalStateException {
+            if (isKeyMode()) {
+                throw new IllegalStateException("snapshot is created in key mode.");
+            }
+        }
+
+        private void checkKeyMode() throws IllegalStateException {
+            if (!isKeyMode()) {
+                throw new IllegalStateException("snapshot is not created in key mode.");
+            }
+        }
+    }
 }
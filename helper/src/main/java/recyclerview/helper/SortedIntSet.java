@@ -0,0 +1,643 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 jrfeng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package recyclerview.helper;
+
+import java.util.Arrays;
+
+/**
+ * 一个有序的 int 集合。
+ * <p>
+ * 内部将连续的元素合并为区间 [start, end) 保存，所有区间按升序排列且互不相交、互不相邻。因此连续的元素
+ * （例如 “全选” 后的所有位置）只需占用一个区间。
+ * <p>
+ * {@link #contains(int)} 方法的时间复杂度为 O(log r)，r 为区间的数量；区间操作的时间复杂度只与区间的数
+ * 量有关，而与区间中元素的数量无关。该类不会对元素进行装箱。
+ * <p>
+ * {@link #insertSpan(int, int)} 与 {@link #deleteSpan(int, int)} 会将后续区间的整体偏移量记录在一个
+ * 树状数组（Fenwick Tree）中，而不是立即修改每一个区间，因此在不需要拆分或合并区间时，它们的时间复杂
+ * 度为 O(log² r)。累积的偏移量会在下一次需要移动区间的操作之前一次性写回。
+ */
+final class SortedIntSet {
+    private static final int DEFAULT_CAPACITY = 8;
+
+    // 序列化格式
+    private static final int FORMAT_RANGES = 0;
+    private static final int FORMAT_BITSET = 1;
+
+    private static final int[] EMPTY_OFFSET_TREE = new int[0];
+
+    private int[] mStarts;
+    private int[] mEnds;
+    private int mRangeCount;
+
+    // 元素的数量
+    private int mSize;
+
+    // 以差分形式保存各区间尚未写回的偏移量，mOffsetTree[i + 1] 对应第 i 个区间
+    private int[] mOffsetTree;
+    private boolean mHasPendingOffset;
+
+    // 为 true 时表示 mStarts 与 mEnds 正被其他快照共享，修改前需要先复制
+    private boolean mShared;
+
+    SortedIntSet() {
+        mStarts = new int[DEFAULT_CAPACITY];
+        mEnds = new int[DEFAULT_CAPACITY];
+        mOffsetTree = new int[DEFAULT_CAPACITY + 1];
+        mRangeCount = 0;
+        mSize = 0;
+    }
+
+    private SortedIntSet(SortedIntSet source) {
+        mStarts = source.mStarts;
+        mEnds = source.mEnds;
+        mOffsetTree = EMPTY_OFFSET_TREE;
+        mRangeCount = source.mRangeCount;
+        mSize = source.mSize;
+        mShared = true;
+    }
+
+    /**
+     * 创建当前集合的一个快照。
+     * <p>
+     * 快照与当前集合共享底层数组（写时复制），因此创建快照的时间复杂度为 O(1)（不计写回累积偏移量的
+     * 开销）。当前集合在下一次修改区间时才会复制底层数组，快照中的数据始终不会被修改。调用者不应修改
+     * 返回的快照。
+     */
+    SortedIntSet snapshot() {
+        flushOffset();
+        mShared = true;
+        return new SortedIntSet(this);
+    }
+
+    /**
+     * 查询集合中是否包含指定值。
+     */
+    boolean contains(int value) {
+        int index = floorRange(value);
+        return index >= 0 && value < end(index);
+    }
+
+    /**
+     * 添加一个值。
+     *
+     * @return 如果集合中原本不包含该值则返回 true，否则返回 false。
+     */
+    boolean add(int value) {
+        return addRange(value, value + 1) > 0;
+    }
+
+    /**
+     * 移除一个值。
+     *
+     * @return 如果集合中原本包含该值则返回 true，否则返回 false。
+     */
+    boolean remove(int value) {
+        return removeRange(value, value + 1) > 0;
+    }
+
+    /**
+     * 添加 [start, end) 区间内的所有值。
+     *
+     * @return 新添加的值的数量。
+     */
+    int addRange(int start, int end) {
+        if (start >= end) {
+            return 0;
+        }
+
+        // 与 [start, end) 相交或相邻的区间为 [first, last]
+        int first = lowerBound(mEnds, start);
+        int last = upperBound(mStarts, end) - 1;
+
+        if (first > last) {
+            replace(first, first, 1);
+            mStarts[first] = start;
+            mEnds[first] = end;
+            mSize += end - start;
+            return end - start;
+        }
+
+        int covered = 0;
+        for (int i = first; i <= last; i++) {
+            covered += end(i) - start(i);
+        }
+
+        int newStart = Math.min(start, start(first));
+        int newEnd = Math.max(end, end(last));
+
+        replace(first, last + 1, 1);
+        mStarts[first] = newStart;
+        mEnds[first] = newEnd;
+
+        int added = (newEnd - newStart) - covered;
+        mSize += added;
+        return added;
+    }
+
+    /**
+     * 移除 [start, end) 区间内的所有值。
+     *
+     * @return 被移除的值的数量。
+     */
+    int removeRange(int start, int end) {
+        if (start >= end) {
+            return 0;
+        }
+
+        // 与 [start, end) 相交的区间为 [first, last]
+        int first = upperBound(mEnds, start);
+        int last = lowerBound(mStarts, end) - 1;
+
+        if (first > last) {
+            return 0;
+        }
+
+        int removed = 0;
+        for (int i = first; i <= last; i++) {
+            removed += Math.min(end, end(i)) - Math.max(start, start(i));
+        }
+
+        int headStart = start(first);
+        int tailEnd = end(last);
+        boolean keepHead = headStart < start;
+        boolean keepTail = tailEnd > end;
+
+        replace(first, last + 1, (keepHead ? 1 : 0) + (keepTail ? 1 : 0));
+
+        int index = first;
+        if (keepHead) {
+            mStarts[index] = headStart;
+            mEnds[index] = start;
+            index++;
+        }
+
+        if (keepTail) {
+            mStarts[index] = end;
+            mEnds[index] = tailEnd;
+        }
+
+        mSize -= removed;
+        return removed;
+    }
+
+    /**
+     * 在 position 处插入 count 个不属于该集合的值，所有大于或等于 position 的值都会加上 count。
+     * <p>
+     * 用于在列表中插入元素后同步列表项的位置。
+     */
+    void insertSpan(int position, int count) {
+        if (count <= 0) {
+            return;
+        }
+
+        int index = floorRange(position);
+        if (index >= 0 && start(index) < position && position < end(index)) {
+            // 拆分包含 position 的区间
+            int end = end(index);
+            replace(index + 1, index + 1, 1);
+            mEnds[index] = position;
+            mStarts[index + 1] = position;
+            mEnds[index + 1] = end;
+            index++;
+        } else {
+            index = lowerBound(mStarts, position);
+        }
+
+        addOffset(index, count);
+    }
+
+    /**
+     * 删除 [position, position + count) 区间内的值，并将所有大于或等于 position + count 的值减去 count。
+     * <p>
+     * 用于在列表中移除元素后同步列表项的位置。
+     *
+     * @return 被删除的值的数量。
+     */
+    int deleteSpan(int position, int count) {
+        if (count <= 0) {
+            return 0;
+        }
+
+        int end = position + count;
+        int removed = removeRange(position, end);
+
+        int index = lowerBound(mStarts, end);
+        addOffset(index, -count);
+
+        // 合并因删除而相邻的两个区间
+        if (index > 0 && index < mRangeCount && end(index - 1) == start(index)) {
+            int mergedEnd = end(index);
+            replace(index, index + 1, 0);
+            mEnds[index - 1] = mergedEnd;
+        }
+
+        return removed;
+    }
+
+    /**
+     * 反转 [0, end) 区间内所有值的包含状态。
+     */
+    void complement(int end) {
+        if (end <= 0) {
+            return;
+        }
+
+        flushOffset();
+
+        int last = lowerBound(mStarts, end) - 1;
+        int tailEnd = last >= 0 ? mEnds[last] : 0;
+
+        int[] starts = new int[Math.max(DEFAULT_CAPACITY, mRangeCount + 2)];
+        int[] ends = new int[starts.length];
+        int count = 0;
+        int size = 0;
+
+        int cursor = 0;
+        for (int i = 0; i <= last; i++) {
+            if (mStarts[i] > cursor) {
+                starts[count] = cursor;
+                ends[count] = mStarts[i];
+                size += mStarts[i] - cursor;
+                count++;
+            }
+            cursor = mEnds[i];
+        }
+
+        if (tailEnd > end) {
+            // 最后一个区间跨越了 end，保留 end 之后的部分
+            starts[count] = end;
+            ends[count] = tailEnd;
+            size += tailEnd - end;
+            count++;
+        } else if (cursor < end) {
+            starts[count] = cursor;
+            ends[count] = end;
+            size += end - cursor;
+            count++;
+        }
+
+        int next = last + 1;
+        if (next < mRangeCount && count > 0 && ends[count - 1] == mStarts[next]) {
+            // 与 end 之后的第一个区间相邻，合并
+            ends[count - 1] = mEnds[next];
+            size += mEnds[next] - mStarts[next];
+            next++;
+        }
+
+        for (int i = next; i < mRangeCount; i++) {
+            starts[count] = mStarts[i];
+            ends[count] = mEnds[i];
+            size += mEnds[i] - mStarts[i];
+            count++;
+        }
+
+        mStarts = starts;
+        mEnds = ends;
+        mOffsetTree = new int[starts.length + 1];
+        mShared = false;
+        mRangeCount = count;
+        mSize = size;
+    }
+
+    /**
+     * 获取最小的元素，集合为空时会抛出 IllegalStateException 异常。
+     */
+    int min() {
+        if (mRangeCount == 0) {
+            throw new IllegalStateException("set is empty");
+        }
+
+        return start(0);
+    }
+
+    int size() {
+        return mSize;
+    }
+
+    boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    void clear() {
+        if (mHasPendingOffset) {
+            Arrays.fill(mOffsetTree, 0);
+            mHasPendingOffset = false;
+        }
+
+        mRangeCount = 0;
+        mSize = 0;
+    }
+
+    /**
+     * 获取第一个结束值大于 value 的区间（即包含 value 或位于 value 之后的第一个区间）的索引，不存在时返回
+     * {@link #rangeCount()}。
+     */
+    int ceilingRange(int value) {
+        return upperBound(mEnds, value);
+    }
+
+    /**
+     * 获取区间的数量。
+     */
+    int rangeCount() {
+        return mRangeCount;
+    }
+
+    /**
+     * 获取第 index 个区间的起始值（包含）。
+     */
+    int rangeStart(int index) {
+        checkRangeIndex(index);
+        return start(index);
+    }
+
+    /**
+     * 获取第 index 个区间的结束值（不包含）。
+     */
+    int rangeEnd(int index) {
+        checkRangeIndex(index);
+        return end(index);
+    }
+
+    /**
+     * 将集合序列化为字节数组。
+     * <p>
+     * 会在 “区间编码” 与 “位图编码” 中选择结果更小的一种：区间编码使用变长整数保存每个区间与前一个区间
+     * 的间隔及区间的长度，其大小只与区间的数量有关；位图编码的大小则不会超过 (最大元素 / 8) 个字节。
+     */
+    byte[] toByteArray() {
+        int rangesSize = 1 + VarIntBuffer.sizeOfVarLong(mRangeCount);
+        int prevEnd = 0;
+        for (int i = 0; i < mRangeCount; i++) {
+            int start = start(i);
+            int end = end(i);
+            rangesSize += VarIntBuffer.sizeOfVarLong(start - prevEnd) + VarIntBuffer.sizeOfVarLong(end - start);
+            prevEnd = end;
+        }
+
+        int bitsetSize = 1 + VarIntBuffer.sizeOfVarLong(prevEnd) + (prevEnd + 7) / 8;
+
+        if (rangesSize <= bitsetSize) {
+            VarIntBuffer buffer = new VarIntBuffer(rangesSize);
+            buffer.writeByte(FORMAT_RANGES);
+            buffer.writeVarLong(mRangeCount);
+
+            prevEnd = 0;
+            for (int i = 0; i < mRangeCount; i++) {
+                int start = start(i);
+                int end = end(i);
+                buffer.writeVarLong(start - prevEnd);
+                buffer.writeVarLong(end - start);
+                prevEnd = end;
+            }
+            return buffer.toByteArray();
+        }
+
+        VarIntBuffer buffer = new VarIntBuffer(bitsetSize);
+        buffer.writeByte(FORMAT_BITSET);
+        buffer.writeVarLong(prevEnd);
+
+        int rangeIndex = 0;
+        for (int base = 0; base < prevEnd; base += 8) {
+            int bits = 0;
+            for (int bit = 0; bit < 8; bit++) {
+                int value = base + bit;
+                while (rangeIndex < mRangeCount && end(rangeIndex) <= value) {
+                    rangeIndex++;
+                }
+
+                if (rangeIndex < mRangeCount && start(rangeIndex) <= value) {
+                    bits |= 1 << bit;
+                }
+            }
+            buffer.writeByte(bits);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * 从 {@link #toByteArray()} 方法返回的字节数组中恢复集合。
+     *
+     * @throws IllegalArgumentException 如果数据已损坏，则会抛出该异常。
+     */
+    static SortedIntSet fromByteArray(byte[] bytes) throws IllegalArgumentException {
+        VarIntBuffer buffer = new VarIntBuffer(bytes);
+        SortedIntSet set = new SortedIntSet();
+
+        int format = buffer.readByte();
+        if (format == FORMAT_RANGES) {
+            int rangeCount = buffer.readVarInt();
+            long prevEnd = 0;
+            for (int i = 0; i < rangeCount; i++) {
+                long start = prevEnd + buffer.readVarInt();
+                long end = start + buffer.readVarInt();
+                if (end > Integer.MAX_VALUE || start >= end || (i > 0 && start <= prevEnd)) {
+                    throw new IllegalArgumentException("malformed range: [" + start + ", " + end + ")");
+                }
+
+                set.appendRange((int) start, (int) end);
+                prevEnd = end;
+            }
+        } else if (format == FORMAT_BITSET) {
+            int bitCount = buffer.readVarInt();
+            int runStart = -1;
+            for (int base = 0; base < bitCount; base += 8) {
+                int bits = buffer.readByte();
+                for (int bit = 0; bit < 8 && base + bit < bitCount; bit++) {
+                    boolean contains = (bits & (1 << bit)) != 0;
+                    if (contains && runStart < 0) {
+                        runStart = base + bit;
+                    } else if (!contains && runStart >= 0) {
+                        set.appendRange(runStart, base + bit);
+                        runStart = -1;
+                    }
+                }
+            }
+
+            if (runStart >= 0) {
+                set.appendRange(runStart, bitCount);
+            }
+        } else {
+            throw new IllegalArgumentException("unknown format: " + format);
+        }
+
+        if (buffer.hasRemaining()) {
+            throw new IllegalArgumentException("unexpected trailing data");
+        }
+
+        return set;
+    }
+
+    // *******************************private****************************
+
+    // 在末尾追加一个区间，调用者需要保证该区间大于所有已有的区间且与之不相邻
+    private void appendRange(int start, int end) {
+        replace(mRangeCount, mRangeCount, 1);
+        mStarts[mRangeCount - 1] = start;
+        mEnds[mRangeCount - 1] = end;
+        mSize += end - start;
+    }
+
+    private void checkRangeIndex(int index) {
+        if (index < 0 || index >= mRangeCount) {
+            throw new IndexOutOfBoundsException("index: " + index + ", range count: " + mRangeCount);
+        }
+    }
+
+    // 返回起始值小于或等于 value 的最后一个区间的索引，不存在时返回 -1
+    private int floorRange(int value) {
+        return upperBound(mStarts, value) - 1;
+    }
+
+    private int start(int index) {
+        return mHasPendingOffset ? mStarts[index] + offsetOf(index) : mStarts[index];
+    }
+
+    private int end(int index) {
+        return mHasPendingOffset ? mEnds[index] + offsetOf(index) : mEnds[index];
+    }
+
+    // 将第 index 个及之后的所有区间偏移 offset
+    private void addOffset(int index, int offset) {
+        if (index >= mRangeCount || offset == 0) {
+            return;
+        }
+
+        for (int i = index + 1; i < mOffsetTree.length; i += i & -i) {
+            mOffsetTree[i] += offset;
+        }
+        mHasPendingOffset = true;
+    }
+
+    // 获取第 index 个区间尚未写回的偏移量
+    private int offsetOf(int index) {
+        int offset = 0;
+        for (int i = index + 1; i > 0; i -= i & -i) {
+            offset += mOffsetTree[i];
+        }
+        return offset;
+    }
+
+    // 将累积的偏移量写回到区间中
+    private void flushOffset() {
+        if (!mHasPendingOffset) {
+            return;
+        }
+
+        unshare();
+
+        // 将树状数组还原为差分数组
+        int n = mOffsetTree.length - 1;
+        for (int i = n; i > 0; i--) {
+            int parent = i + (i & -i);
+            if (parent <= n) {
+                mOffsetTree[parent] -= mOffsetTree[i];
+            }
+        }
+
+        int offset = 0;
+        for (int i = 0; i < mRangeCount; i++) {
+            offset += mOffsetTree[i + 1];
+            mStarts[i] += offset;
+            mEnds[i] += offset;
+        }
+
+        Arrays.fill(mOffsetTree, 0);
+        mHasPendingOffset = false;
+    }
+
+    // 将 [from, to) 处的区间替换为 count 个待填充的区间
+    private void replace(int from, int to, int count) {
+        flushOffset();
+        unshare();
+
+        int newRangeCount = mRangeCount - (to - from) + count;
+        ensureCapacity(newRangeCount);
+
+        System.arraycopy(mStarts, to, mStarts, from + count, mRangeCount - to);
+        System.arraycopy(mEnds, to, mEnds, from + count, mRangeCount - to);
+        mRangeCount = newRangeCount;
+    }
+
+    // 如果底层数组正被快照共享，则先复制一份
+    private void unshare() {
+        if (!mShared) {
+            return;
+        }
+
+        mStarts = Arrays.copyOf(mStarts, mStarts.length);
+        mEnds = Arrays.copyOf(mEnds, mEnds.length);
+        if (mOffsetTree.length != mStarts.length + 1) {
+            mOffsetTree = new int[mStarts.length + 1];
+        }
+        mShared = false;
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity <= mStarts.length) {
+            return;
+        }
+
+        int newCapacity = Math.max(minCapacity, mStarts.length * 2);
+        mStarts = Arrays.copyOf(mStarts, newCapacity);
+        mEnds = Arrays.copyOf(mEnds, newCapacity);
+        mOffsetTree = new int[newCapacity + 1];
+    }
+
+    // 返回第一个大于或等于 value 的元素的索引
+    private int lowerBound(int[] array, int value) {
+        int low = 0;
+        int high = mRangeCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (valueAt(array, mid) < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // 返回第一个大于 value 的元素的索引
+    private int upperBound(int[] array, int value) {
+        int low = 0;
+        int high = mRangeCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (valueAt(array, mid) <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // array 为 mStarts 或 mEnds
+    private int valueAt(int[] array, int index) {
+        return mHasPendingOffset ? array[index] + offsetOf(index) : array[index];
+    }
+}
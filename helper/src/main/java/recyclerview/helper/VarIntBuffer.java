@@ -0,0 +1,150 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 jrfeng
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package recyclerview.helper;
+
+import java.util.Arrays;
+
+/**
+ * 一个简单的字节缓冲区，用于以变长整数（VarInt）的形式紧凑地读写数据。
+ * <p>
+ * 值越小，编码后占用的字节数越少：小于 128 的值只需要 1 个字节。
+ */
+final class VarIntBuffer {
+    private byte[] mBytes;
+    private int mPosition;
+    private int mLimit;
+
+    /**
+     * 创建一个用于写入数据的缓冲区。
+     *
+     * @param capacity 初始容量。
+     */
+    VarIntBuffer(int capacity) {
+        mBytes = new byte[Math.max(capacity, 1)];
+        mPosition = 0;
+        mLimit = 0;
+    }
+
+    /**
+     * 创建一个用于读取 bytes 中数据的缓冲区。
+     */
+    VarIntBuffer(byte[] bytes) {
+        mBytes = bytes;
+        mPosition = 0;
+        mLimit = bytes.length;
+    }
+
+    void writeByte(int value) {
+        ensureCapacity(mLimit + 1);
+        mBytes[mLimit++] = (byte) value;
+    }
+
+    /**
+     * 写入一个无符号的变长整数。
+     */
+    void writeVarLong(long value) {
+        ensureCapacity(mLimit + sizeOfVarLong(value));
+        while ((value & ~0x7FL) != 0) {
+            mBytes[mLimit++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        mBytes[mLimit++] = (byte) value;
+    }
+
+    /**
+     * 读取一个字节（0 ~ 255）。
+     *
+     * @throws IllegalArgumentException 如果已没有可读取的数据，则会抛出该异常。
+     */
+    int readByte() throws IllegalArgumentException {
+        if (mPosition >= mLimit) {
+            throw new IllegalArgumentException("unexpected end of data");
+        }
+
+        return mBytes[mPosition++] & 0xFF;
+    }
+
+    /**
+     * 读取一个无符号的变长整数。
+     *
+     * @throws IllegalArgumentException 如果数据已损坏，则会抛出该异常。
+     */
+    long readVarLong() throws IllegalArgumentException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IllegalArgumentException("malformed varint");
+    }
+
+    /**
+     * 读取一个非负的变长整数，并检查其是否在 int 的范围内。
+     *
+     * @throws IllegalArgumentException 如果数据已损坏，则会抛出该异常。
+     */
+    int readVarInt() throws IllegalArgumentException {
+        long value = readVarLong();
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("value out of range: " + value);
+        }
+
+        return (int) value;
+    }
+
+    boolean hasRemaining() {
+        return mPosition < mLimit;
+    }
+
+    /**
+     * 返回已写入的所有数据。
+     */
+    byte[] toByteArray() {
+        return Arrays.copyOf(mBytes, mLimit);
+    }
+
+    /**
+     * 计算一个无符号的变长整数编码后占用的字节数。
+     */
+    static int sizeOfVarLong(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity <= mBytes.length) {
+            return;
+        }
+
+        mBytes = Arrays.copyOf(mBytes, Math.max(minCapacity, mBytes.length * 2));
+    }
+}
@@ -0,0 +1,112 @@
+package recyclerview.helper;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ClickThrottleTest {
+    private static final long WINDOW = 500;
+
+    @Test
+    public void throttle_measuresWindowFromAcceptedClick() {
+        ClickThrottle throttle = new ClickThrottle();
+        throttle.setWindow(WINDOW, false);
+
+        assertTrue(throttle.tryAcquire(1, 1000));
+        assertFalse(throttle.tryAcquire(1, 1300));
+        assertFalse(throttle.tryAcquire(1, 1499));
+        assertTrue(throttle.tryAcquire(1, 1500));
+    }
+
+    @Test
+    public void debounce_extendsWindowOnDroppedClick() {
+        ClickThrottle throttle = new ClickThrottle();
+        throttle.setWindow(WINDOW, true);
+
+        assertTrue(throttle.tryAcquire(1, 1000));
+        assertFalse(throttle.tryAcquire(1, 1300));
+        // 被丢弃的点击将时间窗口延长到了 1800
+        assertFalse(throttle.tryAcquire(1, 1500));
+        assertTrue(throttle.tryAcquire(1, 2000));
+    }
+
+    @Test
+    public void keys_areThrottledIndependently() {
+        ClickThrottle throttle = new ClickThrottle();
+        throttle.setWindow(WINDOW, false);
+
+        assertTrue(throttle.tryAcquire(1, 1000));
+        assertTrue(throttle.tryAcquire(2, 1100));
+        assertFalse(throttle.tryAcquire(1, 1200));
+        assertFalse(throttle.tryAcquire(2, 1200));
+    }
+
+    @Test
+    public void disabledWindow_acceptsEveryClick() {
+        ClickThrottle throttle = new ClickThrottle();
+        throttle.setWindow(0, false);
+
+        assertTrue(throttle.tryAcquire(1, 1000));
+        assertTrue(throttle.tryAcquire(1, 1000));
+    }
+
+    @Test
+    public void setWindowAndClear_forgetRecentClicks() {
+        ClickThrottle throttle = new ClickThrottle();
+        throttle.setWindow(WINDOW, false);
+        assertTrue(throttle.tryAcquire(1, 1000));
+
+        throttle.clear();
+        assertTrue(throttle.tryAcquire(1, 1100));
+
+        throttle.setWindow(WINDOW, true);
+        assertTrue(throttle.tryAcquire(1, 1200));
+    }
+
+    @Test
+    public void fullTable_evictsOldestClick() {
+        ClickThrottle throttle = new ClickThrottle();
+        throttle.setWindow(WINDOW, false);
+
+        for (int key = 0; key < 16; key++) {
+            assertTrue(throttle.tryAcquire(key, 1000 + key));
+        }
+
+        // 表已满，key 0 的记录（最早）被覆盖，其余记录仍然有效
+        assertTrue(throttle.tryAcquire(16, 1100));
+        for (int key = 1; key <= 16; key++) {
+            assertFalse(throttle.tryAcquire(key, 1200));
+        }
+        assertTrue(throttle.tryAcquire(0, 1200));
+    }
+
+    @Test
+    public void tryAcquire_matchesMapModel() {
+        Random random = new Random(18);
+        for (int round = 0; round < 20; round++) {
+            boolean debounce = round % 2 == 1;
+            ClickThrottle throttle = new ClickThrottle();
+            throttle.setWindow(WINDOW, debounce);
+            Map<Integer, Long> lastTimes = new HashMap<>();
+
+            long now = 0;
+            for (int i = 0; i < 2000; i++) {
+                now += random.nextInt(200);
+                // 不超过表的容量，此时过滤结果与不限容量的模型一致
+                int key = random.nextInt(16);
+
+                Long last = lastTimes.get(key);
+                boolean expected = last == null || now - last >= WINDOW;
+                if (expected || debounce) {
+                    lastTimes.put(key, now);
+                }
+
+                assertEquals(expected, throttle.tryAcquire(key, now));
+            }
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package recyclerview.helper;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LongHashSetTest {
+    private static final int ROUNDS = 5000;
+
+    @Test
+    public void addAndRemove_matchHashSet() {
+        Random random = new Random(4);
+        LongHashSet set = new LongHashSet();
+        HashSet<Long> model = new HashSet<>();
+
+        for (int i = 0; i < ROUNDS; i++) {
+            // 取值范围较小，使元素频繁地被删除后再次添加
+            long key = random.nextInt(300) - 50;
+            if (random.nextInt(3) > 0) {
+                assertEquals(model.add(key), set.add(key));
+            } else {
+                assertEquals(model.remove(key), set.remove(key));
+            }
+            assertEquals(model.contains(key), set.contains(key));
+            assertSameElements(model, set);
+        }
+    }
+
+    @Test
+    public void remove_keepsCollidingKeysReachable() {
+        LongHashSet set = new LongHashSet();
+        HashSet<Long> model = new HashSet<>();
+
+        // 连续的 key 会形成较长的探测序列，删除中间的元素后其余元素仍需可被找到
+        for (long key = 1; key <= 12; key++) {
+            set.add(key);
+            model.add(key);
+        }
+
+        for (long key = 2; key <= 12; key += 3) {
+            assertTrue(set.remove(key));
+            model.remove(key);
+            assertSameElements(model, set);
+        }
+    }
+
+    @Test
+    public void zero_isStoredSeparately() {
+        LongHashSet set = new LongHashSet();
+
+        assertFalse(set.contains(0));
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        assertTrue(set.contains(0));
+        assertEquals(1, set.size());
+
+        assertTrue(set.remove(0));
+        assertFalse(set.remove(0));
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    public void clear_removesAllElements() {
+        LongHashSet set = new LongHashSet();
+        for (long key = -10; key < 100; key++) {
+            set.add(key);
+        }
+
+        set.clear();
+
+        assertTrue(set.isEmpty());
+        assertEquals(0, set.toArray().length);
+        assertFalse(set.contains(0));
+        assertFalse(set.contains(42));
+    }
+
+    @Test
+    public void snapshot_isNotAffectedByLaterChanges() {
+        Random random = new Random(10);
+        LongHashSet set = new LongHashSet();
+        HashSet<Long> model = new HashSet<>();
+
+        for (int i = 0; i < 500; i++) {
+            LongHashSet snapshot = set.snapshot();
+            HashSet<Long> snapshotModel = new HashSet<>(model);
+
+            long key = random.nextInt(100);
+            switch (random.nextInt(5)) {
+                case 0:
+                case 1:
+                    set.add(key);
+                    model.add(key);
+                    break;
+                case 2:
+                case 3:
+                    set.remove(key);
+                    model.remove(key);
+                    break;
+                default:
+                    if (random.nextInt(10) == 0) {
+                        set.clear();
+                        model.clear();
+                    }
+                    break;
+            }
+
+            assertSameElements(model, set);
+            assertSameElements(snapshotModel, snapshot);
+        }
+    }
+
+    @Test
+    public void snapshot_survivesRehash() {
+        LongHashSet set = new LongHashSet();
+        set.add(1);
+        LongHashSet snapshot = set.snapshot();
+
+        for (long key = 2; key < 100; key++) {
+            set.add(key);
+        }
+        set.remove(1);
+
+        assertEquals(1, snapshot.size());
+        assertTrue(snapshot.contains(1));
+        assertFalse(snapshot.contains(2));
+        assertEquals(98, set.size());
+    }
+
+    @Test
+    public void serialization_roundTrip() {
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            LongHashSet set = new LongHashSet();
+            HashSet<Long> model = new HashSet<>();
+            int size = random.nextInt(50);
+            for (int j = 0; j < size; j++) {
+                // 混合使用取值相近的 key 与任意的 key（包括负数）
+                long key = (j % 3 == 0) ? random.nextLong() : random.nextInt(1000) - 500;
+                set.add(key);
+                model.add(key);
+            }
+
+            assertSameElements(model, LongHashSet.fromByteArray(set.toByteArray()));
+        }
+    }
+
+    @Test
+    public void serialization_extremeKeys() {
+        LongHashSet set = new LongHashSet();
+        HashSet<Long> model = new HashSet<>();
+        for (long key : new long[]{Long.MIN_VALUE, -1, 0, 1, Long.MAX_VALUE}) {
+            set.add(key);
+            model.add(key);
+        }
+
+        assertSameElements(model, LongHashSet.fromByteArray(set.toByteArray()));
+    }
+
+    @Test
+    public void toByteArray_closeKeysAreCompact() {
+        LongHashSet set = new LongHashSet();
+        for (long key = 1000; key < 1100; key++) {
+            set.add(key);
+        }
+
+        // 数量、第一个 key 与 99 个单字节的差值
+        assertEquals(1 + 2 + 99, set.toByteArray().length);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromByteArray_rejectsTruncatedData() {
+        // 声明了 2 个元素，但只有 1 个
+        LongHashSet.fromByteArray(new byte[]{2, 2});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromByteArray_rejectsTrailingData() {
+        LongHashSet.fromByteArray(new byte[]{1, 2, 3});
+    }
+
+    static void assertSameElements(HashSet<Long> model, LongHashSet set) {
+        assertEquals(model.size(), set.size());
+        for (long key : model) {
+            assertTrue("contains(" + key + ")", set.contains(key));
+        }
+
+        long[] expected = new long[model.size()];
+        int index = 0;
+        for (long key : model) {
+            expected[index++] = key;
+        }
+        long[] actual = set.toArray();
+        Arrays.sort(expected);
+        Arrays.sort(actual);
+        assertArrayEquals(expected, actual);
+    }
+}
@@ -0,0 +1,164 @@
+package recyclerview.helper;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PositionMappingTest {
+    private static final int NO_POSITION = -1;
+    private static final int INITIAL_SIZE = 100;
+
+    @Test
+    public void apply_matchesListModel() {
+        Random random = new Random(14);
+        for (int round = 0; round < 50; round++) {
+            PositionMapping mapping = new PositionMapping();
+            List<Integer> items = newItems();
+
+            for (int i = 0; i < 40; i++) {
+                applyRandomOp(random, mapping, items);
+                assertMapping(items, mapping);
+            }
+        }
+    }
+
+    @Test
+    public void applyOp_matchesListModel() {
+        Random random = new Random(15);
+        for (int i = 0; i < 1000; i++) {
+            List<Integer> items = newItems();
+            int op = random.nextInt(3);
+            int positionStart = random.nextInt(INITIAL_SIZE);
+            int itemCount = 1 + random.nextInt(INITIAL_SIZE - positionStart);
+            int toPosition = random.nextInt(INITIAL_SIZE - itemCount + 1);
+            applyToList(items, op, positionStart, itemCount, toPosition);
+
+            for (int position = 0; position < INITIAL_SIZE; position++) {
+                assertEquals(items.indexOf(position),
+                        PositionMapping.applyOp(op, positionStart, itemCount, toPosition, position));
+            }
+        }
+    }
+
+    @Test
+    public void apply_mergesSegmentsWithSameOffset() {
+        PositionMapping mapping = new PositionMapping();
+
+        mapping.apply(PositionMapping.OP_INSERT, 10, 5, 0);
+        assertEquals(2, mapping.segmentCount());
+
+        // 插入的列表项被移除后，所有位置恢复原状，分段被合并为一个
+        mapping.apply(PositionMapping.OP_REMOVE, 10, 5, 0);
+        assertEquals(1, mapping.segmentCount());
+        assertEquals(10, mapping.map(10));
+
+        mapping.apply(PositionMapping.OP_MOVE, 3, 2, 20);
+        mapping.apply(PositionMapping.OP_MOVE, 20, 2, 3);
+        assertEquals(1, mapping.segmentCount());
+        assertEquals(3, mapping.map(3));
+    }
+
+    @Test
+    public void apply_mergesAdjacentRemovedSegments() {
+        PositionMapping mapping = new PositionMapping();
+
+        mapping.apply(PositionMapping.OP_REMOVE, 10, 5, 0);
+        mapping.apply(PositionMapping.OP_REMOVE, 5, 5, 0);
+
+        // [0, 5) 不变，[5, 15) 被移除，[15, ∞) 前移 10
+        assertEquals(3, mapping.segmentCount());
+        assertEquals(4, mapping.map(4));
+        assertEquals(NO_POSITION, mapping.map(5));
+        assertEquals(NO_POSITION, mapping.map(14));
+        assertEquals(5, mapping.map(15));
+    }
+
+    @Test
+    public void apply_ignoresMoveToSamePosition() {
+        PositionMapping mapping = new PositionMapping();
+
+        mapping.apply(PositionMapping.OP_MOVE, 5, 3, 5);
+
+        assertEquals(1, mapping.segmentCount());
+    }
+
+    @Test
+    public void invalidate_removesAllPositions() {
+        PositionMapping mapping = new PositionMapping();
+        mapping.apply(PositionMapping.OP_INSERT, 0, 1, 0);
+
+        mapping.invalidate();
+        assertEquals(NO_POSITION, mapping.map(0));
+        assertEquals(NO_POSITION, mapping.map(50));
+
+        // 之后的改变不会使已移除的位置重新出现
+        mapping.apply(PositionMapping.OP_INSERT, 0, 10, 0);
+        assertEquals(NO_POSITION, mapping.map(0));
+
+        mapping.reset();
+        assertEquals(50, mapping.map(50));
+        assertEquals(1, mapping.segmentCount());
+    }
+
+    @Test
+    public void map_rejectsNegativePosition() {
+        assertEquals(NO_POSITION, new PositionMapping().map(-1));
+    }
+
+    // 列表项的值为其在检查点时的位置，插入的列表项的值为 NO_POSITION
+    private static List<Integer> newItems() {
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < INITIAL_SIZE; i++) {
+            items.add(i);
+        }
+        return items;
+    }
+
+    private static void applyRandomOp(Random random, PositionMapping mapping, List<Integer> items) {
+        int size = items.size();
+        int op = size == 0 ? PositionMapping.OP_INSERT : random.nextInt(3);
+        int positionStart;
+        int itemCount;
+        int toPosition = 0;
+
+        if (op == PositionMapping.OP_INSERT) {
+            positionStart = random.nextInt(size + 1);
+            itemCount = 1 + random.nextInt(10);
+        } else {
+            positionStart = random.nextInt(size);
+            itemCount = 1 + random.nextInt(Math.min(10, size - positionStart));
+            toPosition = random.nextInt(size - itemCount + 1);
+        }
+
+        applyToList(items, op, positionStart, itemCount, toPosition);
+        mapping.apply(op, positionStart, itemCount, toPosition);
+    }
+
+    private static void applyToList(List<Integer> items, int op, int positionStart, int itemCount, int toPosition) {
+        switch (op) {
+            case PositionMapping.OP_INSERT:
+                for (int i = 0; i < itemCount; i++) {
+                    items.add(positionStart, NO_POSITION);
+                }
+                break;
+            case PositionMapping.OP_REMOVE:
+                items.subList(positionStart, positionStart + itemCount).clear();
+                break;
+            default:
+                List<Integer> moved = new ArrayList<>(items.subList(positionStart, positionStart + itemCount));
+                items.subList(positionStart, positionStart + itemCount).clear();
+                items.addAll(toPosition, moved);
+                break;
+        }
+    }
+
+    private static void assertMapping(List<Integer> items, PositionMapping mapping) {
+        for (int oldPosition = 0; oldPosition < INITIAL_SIZE; oldPosition++) {
+            assertEquals("map(" + oldPosition + ")", items.indexOf(oldPosition), mapping.map(oldPosition));
+        }
+    }
+}
@@ -0,0 +1,493 @@
+package recyclerview.helper;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class SortedIntSetTest {
+    private static final int ROUNDS = 2000;
+    private static final int MAX_VALUE = 200;
+
+    @Test
+    public void addAndRemove_matchTreeSet() {
+        Random random = new Random(1);
+        SortedIntSet set = new SortedIntSet();
+        TreeSet<Integer> model = new TreeSet<>();
+
+        for (int i = 0; i < ROUNDS; i++) {
+            int value = random.nextInt(MAX_VALUE);
+            if (random.nextBoolean()) {
+                assertEquals(model.add(value), set.add(value));
+            } else {
+                assertEquals(model.remove(value), set.remove(value));
+            }
+            assertSameElements(model, set);
+        }
+    }
+
+    @Test
+    public void rangeOperations_matchTreeSet() {
+        Random random = new Random(2);
+        SortedIntSet set = new SortedIntSet();
+        TreeSet<Integer> model = new TreeSet<>();
+
+        for (int i = 0; i < ROUNDS; i++) {
+            int start = random.nextInt(MAX_VALUE);
+            int end = start + random.nextInt(20);
+            switch (random.nextInt(4)) {
+                case 0:
+                    assertEquals(addRange(model, start, end), set.addRange(start, end));
+                    break;
+                case 1:
+                    assertEquals(removeRange(model, start, end), set.removeRange(start, end));
+                    break;
+                case 2:
+                    int value = random.nextInt(MAX_VALUE);
+                    assertEquals(model.add(value), set.add(value));
+                    break;
+                default:
+                    complement(model, end);
+                    set.complement(end);
+                    break;
+            }
+            assertSameElements(model, set);
+        }
+    }
+
+    @Test
+    public void addRange_mergesAdjacentAndOverlappingRanges() {
+        SortedIntSet set = new SortedIntSet();
+        set.addRange(0, 10);
+        set.addRange(20, 30);
+        assertEquals(2, set.rangeCount());
+
+        // 与两个区间都相邻
+        assertEquals(10, set.addRange(10, 20));
+        assertEquals(1, set.rangeCount());
+        assertEquals(0, set.rangeStart(0));
+        assertEquals(30, set.rangeEnd(0));
+
+        // 与已有区间重叠的部分不会被重复计数
+        assertEquals(5, set.addRange(25, 35));
+        assertEquals(35, set.size());
+        assertEquals(1, set.rangeCount());
+    }
+
+    @Test
+    public void removeRange_splitsRange() {
+        SortedIntSet set = new SortedIntSet();
+        set.addRange(0, 100);
+
+        assertEquals(10, set.removeRange(40, 50));
+        assertEquals(2, set.rangeCount());
+        assertEquals(40, set.rangeEnd(0));
+        assertEquals(50, set.rangeStart(1));
+        assertEquals(90, set.size());
+
+        assertEquals(0, set.removeRange(40, 50));
+        assertEquals(0, set.removeRange(60, 60));
+    }
+
+    @Test
+    public void complement_keepsValuesBeyondEnd() {
+        SortedIntSet set = new SortedIntSet();
+        set.addRange(2, 4);
+        set.addRange(8, 12);
+
+        set.complement(10);
+
+        // 跨越 end 的区间只保留 end 之后的部分
+        assertEquals(3, set.rangeCount());
+        assertEquals(4, set.rangeStart(1));
+        assertEquals(8, set.rangeEnd(1));
+        assertEquals(10, set.rangeStart(2));
+        assertEquals(12, set.rangeEnd(2));
+        assertEquals(8, set.size());
+    }
+
+    @Test
+    public void complement_mergesWithRangeStartingAtEnd() {
+        SortedIntSet set = new SortedIntSet();
+        set.addRange(2, 4);
+        set.addRange(10, 12);
+
+        set.complement(10);
+
+        // [4, 10) 与 [10, 12) 相邻，会被合并
+        assertEquals(2, set.rangeCount());
+        assertEquals(0, set.rangeStart(0));
+        assertEquals(2, set.rangeEnd(0));
+        assertEquals(4, set.rangeStart(1));
+        assertEquals(12, set.rangeEnd(1));
+        assertEquals(10, set.size());
+    }
+
+    @Test
+    public void ceilingRange_findsRangeContainingOrAfterValue() {
+        SortedIntSet set = new SortedIntSet();
+        set.addRange(10, 20);
+        set.addRange(30, 40);
+
+        assertEquals(0, set.ceilingRange(0));
+        assertEquals(0, set.ceilingRange(19));
+        assertEquals(1, set.ceilingRange(20));
+        assertEquals(1, set.ceilingRange(35));
+        assertEquals(2, set.ceilingRange(40));
+    }
+
+    @Test
+    public void spans_matchShiftedTreeSet() {
+        Random random = new Random(3);
+        SortedIntSet set = new SortedIntSet();
+        TreeSet<Integer> model = new TreeSet<>();
+        for (int i = 0; i < 40; i++) {
+            int start = random.nextInt(MAX_VALUE);
+            int end = start + 1 + random.nextInt(5);
+            addRange(model, start, end);
+            set.addRange(start, end);
+        }
+
+        for (int i = 0; i < ROUNDS; i++) {
+            int position = random.nextInt(MAX_VALUE);
+            int count = 1 + random.nextInt(5);
+            switch (random.nextInt(5)) {
+                case 0:
+                case 1:
+                    insertSpan(model, position, count);
+                    set.insertSpan(position, count);
+                    break;
+                case 2:
+                case 3:
+                    assertEquals(deleteSpan(model, position, count), set.deleteSpan(position, count));
+                    break;
+                default:
+                    // 修改区间前会先写回累积的偏移量
+                    assertEquals(model.add(position), set.add(position));
+                    break;
+            }
+            assertSameElements(model, set);
+        }
+    }
+
+    @Test
+    public void insertSpan_splitsRangeContainingPosition() {
+        SortedIntSet set = new SortedIntSet();
+        set.addRange(0, 10);
+
+        set.insertSpan(4, 3);
+
+        assertEquals(2, set.rangeCount());
+        assertEquals(4, set.rangeEnd(0));
+        assertEquals(7, set.rangeStart(1));
+        assertEquals(13, set.rangeEnd(1));
+        assertFalse(set.contains(5));
+        assertEquals(10, set.size());
+    }
+
+    @Test
+    public void deleteSpan_mergesRangesThatBecomeAdjacent() {
+        SortedIntSet set = new SortedIntSet();
+        set.addRange(0, 4);
+        set.addRange(7, 13);
+
+        assertEquals(0, set.deleteSpan(4, 3));
+
+        assertEquals(1, set.rangeCount());
+        assertEquals(0, set.rangeStart(0));
+        assertEquals(10, set.rangeEnd(0));
+    }
+
+    @Test
+    public void pendingOffsets_accumulateAcrossManyRanges() {
+        SortedIntSet set = new SortedIntSet();
+        TreeSet<Integer> model = new TreeSet<>();
+        for (int value = 0; value < MAX_VALUE; value += 3) {
+            set.add(value);
+            model.add(value);
+        }
+
+        // 在所有区间之前反复插入与删除，不会触发写回
+        for (int i = 0; i < 50; i++) {
+            set.insertSpan(0, 2);
+            insertSpan(model, 0, 2);
+            assertEquals(model.first().intValue(), set.min());
+        }
+        for (int i = 0; i < 30; i++) {
+            assertEquals(0, set.deleteSpan(0, 1));
+            deleteSpan(model, 0, 1);
+        }
+
+        assertSameElements(model, set);
+    }
+
+    @Test
+    public void serialization_roundTrip() {
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            SortedIntSet set = new SortedIntSet();
+            TreeSet<Integer> model = new TreeSet<>();
+            int rangeCount = random.nextInt(20);
+            for (int j = 0; j < rangeCount; j++) {
+                int start = random.nextInt(MAX_VALUE);
+                // 交替生成稀疏与密集的集合，使两种编码都被用到
+                int end = start + 1 + random.nextInt(i % 2 == 0 ? 3 : 50);
+                set.addRange(start, end);
+                addRange(model, start, end);
+            }
+
+            assertSameElements(model, SortedIntSet.fromByteArray(set.toByteArray()));
+        }
+    }
+
+    @Test
+    public void toByteArray_usesRangesForLongRuns() {
+        SortedIntSet set = new SortedIntSet();
+        set.addRange(0, 100000);
+
+        byte[] bytes = set.toByteArray();
+
+        // 格式、区间数量、间隔与长度
+        assertEquals(1 + 1 + 1 + 3, bytes.length);
+        assertEquals(0, bytes[0]);
+        assertEquals(100000, SortedIntSet.fromByteArray(bytes).size());
+    }
+
+    @Test
+    public void toByteArray_usesBitsetForScatteredValues() {
+        SortedIntSet set = new SortedIntSet();
+        for (int value = 0; value < 64; value += 2) {
+            set.add(value);
+        }
+
+        byte[] bytes = set.toByteArray();
+
+        // 格式、位数与 8 个字节的位图
+        assertEquals(1 + 1 + 8, bytes.length);
+        assertEquals(1, bytes[0]);
+        assertEquals(32, SortedIntSet.fromByteArray(bytes).size());
+    }
+
+    @Test
+    public void toByteArray_emptySet() {
+        assertTrue(SortedIntSet.fromByteArray(new SortedIntSet().toByteArray()).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromByteArray_rejectsEmptyData() {
+        SortedIntSet.fromByteArray(new byte[0]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromByteArray_rejectsUnknownFormat() {
+        SortedIntSet.fromByteArray(new byte[]{2, 0});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromByteArray_rejectsEmptyRange() {
+        // 一个间隔为 1、长度为 0 的区间
+        SortedIntSet.fromByteArray(new byte[]{0, 1, 1, 0});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromByteArray_rejectsAdjacentRanges() {
+        // [0, 1) 与 [1, 2)，间隔为 0
+        SortedIntSet.fromByteArray(new byte[]{0, 2, 0, 1, 0, 1});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromByteArray_rejectsRangeBeyondIntRange() {
+        VarIntBuffer buffer = new VarIntBuffer(16);
+        buffer.writeByte(0);
+        buffer.writeVarLong(1);
+        buffer.writeVarLong(Integer.MAX_VALUE);
+        buffer.writeVarLong(1);
+
+        SortedIntSet.fromByteArray(buffer.toByteArray());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromByteArray_rejectsTruncatedBitset() {
+        // 声明了 16 位，但只有 1 个字节的位图
+        SortedIntSet.fromByteArray(new byte[]{1, 16, (byte) 0xFF});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromByteArray_rejectsTrailingData() {
+        byte[] bytes = new SortedIntSet().toByteArray();
+        byte[] padded = new byte[bytes.length + 1];
+        System.arraycopy(bytes, 0, padded, 0, bytes.length);
+
+        SortedIntSet.fromByteArray(padded);
+    }
+
+    @Test
+    public void snapshot_isNotAffectedByLaterChanges() {
+        Random random = new Random(10);
+        SortedIntSet set = new SortedIntSet();
+        TreeSet<Integer> model = new TreeSet<>();
+
+        for (int i = 0; i < 200; i++) {
+            SortedIntSet snapshot = set.snapshot();
+            TreeSet<Integer> snapshotModel = new TreeSet<>(model);
+
+            int position = random.nextInt(MAX_VALUE);
+            int count = 1 + random.nextInt(10);
+            switch (random.nextInt(6)) {
+                case 0:
+                    set.addRange(position, position + count);
+                    addRange(model, position, position + count);
+                    break;
+                case 1:
+                    set.removeRange(position, position + count);
+                    removeRange(model, position, position + count);
+                    break;
+                case 2:
+                    set.insertSpan(position, count);
+                    insertSpan(model, position, count);
+                    break;
+                case 3:
+                    set.deleteSpan(position, count);
+                    deleteSpan(model, position, count);
+                    break;
+                case 4:
+                    set.complement(position);
+                    complement(model, position);
+                    break;
+                default:
+                    set.clear();
+                    model.clear();
+                    break;
+            }
+
+            assertSameElements(model, set);
+            assertSameElements(snapshotModel, snapshot);
+        }
+    }
+
+    @Test
+    public void snapshot_appliesPendingOffsets() {
+        SortedIntSet set = new SortedIntSet();
+        set.addRange(10, 20);
+        set.insertSpan(0, 5);
+
+        SortedIntSet snapshot = set.snapshot();
+        set.insertSpan(0, 5);
+        set.add(0);
+
+        assertEquals(15, snapshot.rangeStart(0));
+        assertEquals(25, snapshot.rangeEnd(0));
+        assertEquals(20, set.rangeStart(1));
+    }
+
+    @Test
+    public void min_returnsSmallestElement() {
+        SortedIntSet set = new SortedIntSet();
+        set.add(7);
+        set.add(3);
+        set.add(5);
+
+        assertEquals(3, set.min());
+
+        set.remove(3);
+        assertEquals(5, set.min());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void min_throwsWhenEmpty() {
+        new SortedIntSet().min();
+    }
+
+    @Test
+    public void clear_removesAllElements() {
+        SortedIntSet set = new SortedIntSet();
+        for (int i = 0; i < 100; i += 2) {
+            set.add(i);
+        }
+
+        set.clear();
+
+        assertTrue(set.isEmpty());
+        assertEquals(0, set.size());
+        assertEquals(0, set.rangeCount());
+        assertFalse(set.contains(0));
+
+        // 清空后仍可继续使用
+        assertTrue(set.add(4));
+        assertTrue(set.contains(4));
+        assertEquals(1, set.size());
+    }
+
+    static int addRange(TreeSet<Integer> model, int start, int end) {
+        int added = 0;
+        for (int value = start; value < end; value++) {
+            if (model.add(value)) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    static int removeRange(TreeSet<Integer> model, int start, int end) {
+        int removed = 0;
+        for (int value = start; value < end; value++) {
+            if (model.remove(value)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    static void insertSpan(TreeSet<Integer> model, int position, int count) {
+        TreeSet<Integer> shifted = new TreeSet<>();
+        for (int value : model) {
+            shifted.add(value >= position ? value + count : value);
+        }
+        model.clear();
+        model.addAll(shifted);
+    }
+
+    static int deleteSpan(TreeSet<Integer> model, int position, int count) {
+        int removed = removeRange(model, position, position + count);
+        TreeSet<Integer> shifted = new TreeSet<>();
+        for (int value : model) {
+            shifted.add(value >= position + count ? value - count : value);
+        }
+        model.clear();
+        model.addAll(shifted);
+        return removed;
+    }
+
+    static void complement(TreeSet<Integer> model, int end) {
+        for (int value = 0; value < end; value++) {
+            if (!model.remove(value)) {
+                model.add(value);
+            }
+        }
+    }
+
+    // 比较集合中的所有元素，并检查区间是否升序、互不相交且互不相邻
+    static void assertSameElements(TreeSet<Integer> model, SortedIntSet set) {
+        assertEquals(model.size(), set.size());
+        assertEquals(model.isEmpty(), set.isEmpty());
+
+        int max = model.isEmpty() ? MAX_VALUE : Math.max(MAX_VALUE, model.last());
+        for (int value = -1; value <= max + 1; value++) {
+            assertEquals("contains(" + value + ")", model.contains(value), set.contains(value));
+        }
+
+        TreeSet<Integer> elements = new TreeSet<>();
+        int prevEnd = Integer.MIN_VALUE;
+        for (int i = 0; i < set.rangeCount(); i++) {
+            int start = set.rangeStart(i);
+            int end = set.rangeEnd(i);
+            assertTrue("empty range at " + i, start < end);
+            assertTrue("adjacent or overlapping range at " + i, start > prevEnd);
+            addRange(elements, start, end);
+            prevEnd = end;
+        }
+        assertEquals(model, elements);
+    }
+}
@@ -0,0 +1,74 @@
+package recyclerview.helper;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class VarIntBufferTest {
+    private static final long[] VALUES = {
+            0, 1, 127, 128, 16383, 16384, Integer.MAX_VALUE, Integer.MAX_VALUE + 1L, Long.MAX_VALUE, -1, Long.MIN_VALUE
+    };
+
+    @Test
+    public void varLong_roundTrip() {
+        VarIntBuffer writer = new VarIntBuffer(0);
+        int expectedSize = 0;
+        for (long value : VALUES) {
+            writer.writeVarLong(value);
+            expectedSize += VarIntBuffer.sizeOfVarLong(value);
+        }
+
+        byte[] bytes = writer.toByteArray();
+        assertEquals(expectedSize, bytes.length);
+
+        VarIntBuffer reader = new VarIntBuffer(bytes);
+        for (long value : VALUES) {
+            assertEquals(value, reader.readVarLong());
+        }
+        assertFalse(reader.hasRemaining());
+    }
+
+    @Test
+    public void sizeOfVarLong_growsEverySevenBits() {
+        assertEquals(1, VarIntBuffer.sizeOfVarLong(0));
+        assertEquals(1, VarIntBuffer.sizeOfVarLong(127));
+        assertEquals(2, VarIntBuffer.sizeOfVarLong(128));
+        assertEquals(3, VarIntBuffer.sizeOfVarLong(16384));
+        assertEquals(10, VarIntBuffer.sizeOfVarLong(-1));
+    }
+
+    @Test
+    public void readByte_returnsUnsignedValue() {
+        VarIntBuffer writer = new VarIntBuffer(1);
+        writer.writeByte(0xFF);
+
+        assertEquals(0xFF, new VarIntBuffer(writer.toByteArray()).readByte());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void readByte_rejectsEndOfData() {
+        new VarIntBuffer(new byte[0]).readByte();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void readVarLong_rejectsTruncatedValue() {
+        new VarIntBuffer(new byte[]{(byte) 0x80, (byte) 0x80}).readVarLong();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void readVarLong_rejectsOverlongValue() {
+        byte[] bytes = new byte[11];
+        for (int i = 0; i < 10; i++) {
+            bytes[i] = (byte) 0x80;
+        }
+        new VarIntBuffer(bytes).readVarLong();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void readVarInt_rejectsValueOutOfIntRange() {
+        VarIntBuffer writer = new VarIntBuffer(8);
+        writer.writeVarLong(Integer.MAX_VALUE + 1L);
+
+        new VarIntBuffer(writer.toByteArray()).readVarInt();
+    }
+}